@@ -1,23 +1,41 @@
 package com.heonezen.chunkfreezer;
 
+import com.heonezen.chunkfreezer.api.ChunkFreezerApi;
 import com.heonezen.chunkfreezer.command.ChunkCommand;
 import com.heonezen.chunkfreezer.config.Settings;
+import com.heonezen.chunkfreezer.freeze.EntitySuspender;
+import com.heonezen.chunkfreezer.freeze.ExitField;
+import com.heonezen.chunkfreezer.freeze.FreezeService;
 import com.heonezen.chunkfreezer.freeze.FrozenChunkManager;
+import com.heonezen.chunkfreezer.freeze.TransitionBus;
 import com.heonezen.chunkfreezer.listener.BarrierListener;
+import com.heonezen.chunkfreezer.listener.ChunkStateListener;
+import com.heonezen.chunkfreezer.listener.MoveDispatcher;
 import com.heonezen.chunkfreezer.listener.ProtectionListener;
+import com.heonezen.chunkfreezer.listener.SuspensionListener;
 import com.heonezen.chunkfreezer.monitor.ChunkMonitor;
+import com.heonezen.chunkfreezer.monitor.EntityCounter;
+import com.heonezen.chunkfreezer.monitor.FreezeDigest;
+import com.heonezen.chunkfreezer.monitor.RegionLoad;
 import com.heonezen.chunkfreezer.redstone.RedstoneLoopProtector;
 import org.bukkit.Bukkit;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public final class ChunkFreezerPlugin extends JavaPlugin {
 
     private Settings settings;
+    private TransitionBus transitionBus;
+    private FreezeService freezeService;
     private FrozenChunkManager manager;
+    private ExitField exitField;
     private ChunkMonitor chunkMonitor;
+    private EntityCounter entityCounter;
+    private FreezeDigest freezeDigest;
     private BarrierListener barrierListener;
+    private SuspensionListener suspensionListener;
     private ChunkCommand chunkCommand;
 
     @Override
@@ -25,25 +43,47 @@ public final class ChunkFreezerPlugin extends JavaPlugin {
         saveDefaultConfig();
         chunkCommand = new ChunkCommand(this, null);
         registerCommand();
+        transitionBus = new TransitionBus(this);
+        freezeService = new FreezeService(transitionBus);
+        Bukkit.getServicesManager().register(ChunkFreezerApi.class, freezeService, this, ServicePriority.Normal);
         initComponents();
     }
     private void initComponents() {
         settings = new Settings(getConfig());
-        manager  = new FrozenChunkManager(this, settings);
+        manager  = new FrozenChunkManager(this, settings, transitionBus);
         if (chunkCommand != null) chunkCommand.setManager(manager);
-        Bukkit.getPluginManager().registerEvents(new ProtectionListener(this, settings, manager), this);
-        barrierListener = new BarrierListener(this, settings, manager);
+        freezeService.setManager(manager);
+        Bukkit.getPluginManager().registerEvents(new ChunkStateListener(manager), this);
+        manager.start();
+        exitField = new ExitField(this, manager);
+        transitionBus.subscribe(exitField);
+        Bukkit.getPluginManager().registerEvents(new ProtectionListener(this, settings, manager, exitField), this);
+        barrierListener = new BarrierListener(this, settings, manager, exitField);
         Bukkit.getPluginManager().registerEvents(barrierListener, this);
         barrierListener.startParticleTasks();
+        transitionBus.subscribe(barrierListener);
+        Bukkit.getGlobalRegionScheduler().execute(this, barrierListener::syncFrozenOnlyHandlers);
+        if (settings.entitySuspensionEnabled) {
+            suspensionListener = new SuspensionListener(this, manager, new EntitySuspender(this, settings));
+            Bukkit.getPluginManager().registerEvents(suspensionListener, this);
+            transitionBus.subscribe(suspensionListener);
+            suspensionListener.start();
+        }
+        freezeDigest = new FreezeDigest(this, settings);
+        freezeDigest.start();
+        if (chunkCommand != null) chunkCommand.setDigest(freezeDigest);
+        entityCounter = new EntityCounter(settings);
+        Bukkit.getPluginManager().registerEvents(entityCounter, this);
         if (settings.redstoneProtectionEnabled)
-            Bukkit.getPluginManager().registerEvents(new RedstoneLoopProtector(this, settings, manager), this);
+            Bukkit.getPluginManager().registerEvents(new RedstoneLoopProtector(this, settings, manager, entityCounter, freezeDigest), this);
         if (settings.entitiesProtectionEnabled) {
-            chunkMonitor = new ChunkMonitor(this, settings, manager);
+            chunkMonitor = new ChunkMonitor(this, settings, manager, entityCounter, RegionLoad.folia(), freezeDigest);
             Bukkit.getPluginManager().registerEvents(chunkMonitor, this);
             chunkMonitor.runStartupScan();
         } else {
             chunkMonitor = null;
         }
+        Bukkit.getPluginManager().registerEvents(new MoveDispatcher(manager, barrierListener, chunkMonitor), this);
     }
     private void registerCommand() {
         PluginCommand cmd = getCommand("chunk");
@@ -51,8 +91,17 @@ public final class ChunkFreezerPlugin extends JavaPlugin {
     }
     public void reloadPlugin() {
         if (chunkMonitor != null) { chunkMonitor.shutdown(); chunkMonitor = null; }
-        if (barrierListener != null) { barrierListener.shutdown(); barrierListener = null; }
+        if (entityCounter != null) { entityCounter.shutdown(); entityCounter = null; }
+        if (freezeDigest != null) { freezeDigest.shutdown(); freezeDigest = null; }
+        if (barrierListener != null) { transitionBus.unsubscribe(barrierListener); barrierListener.shutdown(); barrierListener = null; }
+        if (suspensionListener != null) {
+            transitionBus.unsubscribe(suspensionListener);
+            suspensionListener.shutdown();
+            suspensionListener = null;
+        }
+        if (exitField != null) { transitionBus.unsubscribe(exitField); exitField.clear(); exitField = null; }
         if (manager != null) { manager.shutdown(); manager = null; }
+        transitionBus.clear();
         HandlerList.unregisterAll(this);
         registerCommand();
         reloadConfig();
@@ -60,8 +109,14 @@ public final class ChunkFreezerPlugin extends JavaPlugin {
     }
     @Override
     public void onDisable() {
+        if (suspensionListener != null) { transitionBus.unsubscribe(suspensionListener); suspensionListener.shutdown(); }
+        if (exitField != null) transitionBus.unsubscribe(exitField);
         if (chunkMonitor != null) chunkMonitor.shutdown();
-        if (barrierListener != null) barrierListener.shutdown();
+        if (entityCounter != null) entityCounter.shutdown();
+        if (freezeDigest != null) freezeDigest.shutdown();
+        if (barrierListener != null) { transitionBus.unsubscribe(barrierListener); barrierListener.shutdown(); }
         if (manager != null) manager.shutdown();
+        if (freezeService != null) freezeService.setManager(null);
+        Bukkit.getServicesManager().unregisterAll(this);
     }
 }
@@ -0,0 +1,29 @@
+package com.heonezen.chunkfreezer.api;
+
+import org.bukkit.World;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.List;
+
+/**
+ * Fired once per world and tick with every chunk that gained freeze reasons during that tick. That
+ * includes chunks already frozen for other reasons; a transition whose {@link ChunkTransition#changed()}
+ * equals its {@link ChunkTransition#reasons()} is a chunk that was not frozen before.
+ */
+public final class ChunkFreezeEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final World world;
+    private final List<ChunkTransition> transitions;
+
+    public ChunkFreezeEvent(World world, List<ChunkTransition> transitions) {
+        this.world = world;
+        this.transitions = transitions;
+    }
+    public World getWorld() { return world; }
+    public List<ChunkTransition> getTransitions() { return transitions; }
+
+    @Override public HandlerList getHandlers() { return HANDLERS; }
+    public static HandlerList getHandlerList() { return HANDLERS; }
+}
@@ -0,0 +1,18 @@
+package com.heonezen.chunkfreezer.api;
+
+import org.bukkit.World;
+
+import java.util.List;
+
+/** Registered with the Bukkit ServicesManager while ChunkFreezer is enabled. */
+public interface ChunkFreezerApi {
+    boolean isFrozen(World world, int cx, int cz);
+    boolean isRedstoneMuted(World world, int cx, int cz);
+    List<FrozenChunk> getFrozenChunks();
+    /** Immutable frozen set of one world; cheap to call repeatedly, rebuilt only after the set changes. */
+    FrozenView snapshot(World world);
+    /** Increases whenever any world's frozen set changes. */
+    long version();
+    void subscribe(FreezeSubscriber subscriber);
+    void unsubscribe(FreezeSubscriber subscriber);
+}
@@ -0,0 +1,20 @@
+package com.heonezen.chunkfreezer.api;
+
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One state change of a chunk. {@code changed} holds the {@link FreezeReason} bits that were set or
+ * cleared, {@code reasons} the bits still active afterwards; an UNFREEZE with non-zero
+ * {@code reasons} leaves the chunk frozen for its remaining reasons. RESTORE and EVICT mark a
+ * frozen chunk loading or unloading with its reasons unchanged; they reach subscribers only and
+ * never fire {@link ChunkFreezeEvent} or {@link ChunkUnfreezeEvent}.
+ */
+public record ChunkTransition(Kind kind, UUID worldId, int cx, int cz, int changed, int reasons, long untilMs) {
+    public enum Kind { FREEZE, UNFREEZE, MUTE, UNMUTE, RESTORE, EVICT }
+
+    public Set<FreezeReason> changedReasons() { return FreezeReason.of(changed); }
+    public Set<FreezeReason> activeReasons()  { return FreezeReason.of(reasons); }
+    public boolean isFrozen() { return reasons != 0; }
+}
@@ -0,0 +1,29 @@
+package com.heonezen.chunkfreezer.api;
+
+import org.bukkit.World;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.List;
+
+/**
+ * Fired once per world and tick with every chunk that lost freeze reasons during that tick. A chunk
+ * can stay frozen for its remaining {@link ChunkTransition#reasons()}; only transitions whose
+ * {@link ChunkTransition#isFrozen()} is false are chunks that thawed.
+ */
+public final class ChunkUnfreezeEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final World world;
+    private final List<ChunkTransition> transitions;
+
+    public ChunkUnfreezeEvent(World world, List<ChunkTransition> transitions) {
+        this.world = world;
+        this.transitions = transitions;
+    }
+    public World getWorld() { return world; }
+    public List<ChunkTransition> getTransitions() { return transitions; }
+
+    @Override public HandlerList getHandlers() { return HANDLERS; }
+    public static HandlerList getHandlerList() { return HANDLERS; }
+}
@@ -0,0 +1,22 @@
+package com.heonezen.chunkfreezer.api;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum FreezeReason {
+    ENTITY,
+    REDSTONE,
+    LAG,
+    CLUSTER;
+
+    private static final FreezeReason[] VALUES = values();
+
+    public int bit() { return 1 << ordinal(); }
+    public boolean in(int mask) { return (mask & bit()) != 0; }
+
+    public static Set<FreezeReason> of(int mask) {
+        EnumSet<FreezeReason> set = EnumSet.noneOf(FreezeReason.class);
+        for (FreezeReason r : VALUES) if (r.in(mask)) set.add(r);
+        return set;
+    }
+}
@@ -0,0 +1,9 @@
+package com.heonezen.chunkfreezer.api;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface FreezeSubscriber {
+    /** Receives every transition of one tick, in the order they happened. Called on the global region thread. */
+    void onTransitions(List<ChunkTransition> batch);
+}
@@ -0,0 +1,9 @@
+package com.heonezen.chunkfreezer.api;
+
+import java.util.Set;
+import java.util.UUID;
+
+/** One frozen chunk as reported by {@link ChunkFreezerApi#getFrozenChunks()}. */
+public record FrozenChunk(UUID worldId, int cx, int cz, int reasons, int entityCount) {
+    public Set<FreezeReason> reasonSet() { return FreezeReason.of(reasons); }
+}
@@ -0,0 +1,19 @@
+package com.heonezen.chunkfreezer.api;
+
+import java.util.UUID;
+
+/**
+ * Immutable frozen set of one world. {@link #version()} is unique across all worlds and changes
+ * whenever the set does, so derived data can be cached against it.
+ */
+public interface FrozenView {
+    UUID worldId();
+    long version();
+    int size();
+    boolean isEmpty();
+    int cx(int i);
+    int cz(int i);
+    /** {@link FreezeReason} bitmask of entry {@code i}. */
+    int reasons(int i);
+    boolean contains(int cx, int cz);
+}
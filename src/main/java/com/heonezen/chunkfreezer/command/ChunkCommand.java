@@ -1,7 +1,10 @@
 package com.heonezen.chunkfreezer.command;
 
 import com.heonezen.chunkfreezer.ChunkFreezerPlugin;
+import com.heonezen.chunkfreezer.api.FreezeReason;
 import com.heonezen.chunkfreezer.freeze.FrozenChunkManager;
+import com.heonezen.chunkfreezer.freeze.FrozenSnapshot;
+import com.heonezen.chunkfreezer.monitor.FreezeDigest;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
@@ -18,12 +21,14 @@ public final class ChunkCommand implements CommandExecutor, TabCompleter {
 
     private final ChunkFreezerPlugin plugin;
     private volatile FrozenChunkManager manager;
+    private volatile FreezeDigest digest;
 
     public ChunkCommand(ChunkFreezerPlugin plugin, FrozenChunkManager manager) {
         this.plugin = plugin; this.manager = manager;
     }
 
     public void setManager(FrozenChunkManager manager) { this.manager = manager; }
+    public void setDigest(FreezeDigest digest) { this.digest = digest; }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
@@ -34,6 +39,7 @@ public final class ChunkCommand implements CommandExecutor, TabCompleter {
         if (args.length == 0) { sendHelp(sender); return true; }
         switch (args[0].toLowerCase()) {
             case "list"   -> handleList(sender);
+            case "recent" -> handleRecent(sender);
             case "reload" -> handleReload(sender);
             case "go"     -> handleGo(sender, args);
             default       -> sendHelp(sender);
@@ -41,21 +47,47 @@ public final class ChunkCommand implements CommandExecutor, TabCompleter {
         return true;
     }
     private void handleList(CommandSender sender) {
-        List<FrozenChunkManager.FrozenInfo> chunks = manager.getFrozenChunks();
-        if (chunks.isEmpty()) { sender.sendMessage(Component.text("No frozen chunks.", NamedTextColor.GREEN)); return; }
-        sender.sendMessage(Component.text("Frozen Chunks (" + chunks.size() + "):", NamedTextColor.GOLD, TextDecoration.BOLD));
-        for (FrozenChunkManager.FrozenInfo info : chunks) {
-            World world = Bukkit.getWorld(info.worldId());
-            String wName = world != null ? world.getName() : info.worldId().toString();
-            int bx = (info.cx() << 4) + 8, bz = (info.cz() << 4) + 8;
-            String causeStr = info.cause() == FrozenChunkManager.FreezeCause.REDSTONE ? "redstone loop" : "entity=" + info.entityCount();
+        List<FrozenSnapshot> snapshots = manager.snapshots();
+        int total = 0;
+        for (FrozenSnapshot snap : snapshots) total += snap.size();
+        if (total == 0) { sender.sendMessage(Component.text("No frozen chunks.", NamedTextColor.GREEN)); return; }
+        sender.sendMessage(Component.text("Frozen Chunks (" + total + "):", NamedTextColor.GOLD, TextDecoration.BOLD));
+        for (FrozenSnapshot snap : snapshots) {
+            World world = Bukkit.getWorld(snap.worldId());
+            String wName = world != null ? world.getName() : snap.worldId().toString();
+            for (int i = 0; i < snap.size(); i++) {
+                int bx = (snap.cx(i) << 4) + 8, bz = (snap.cz(i) << 4) + 8;
+                int reasons = snap.reasons(i);
+                StringJoiner causes = new StringJoiner(", ");
+                if (FreezeReason.ENTITY.in(reasons)) causes.add("entity=" + manager.getEntityCount(snap.worldId(), snap.cx(i), snap.cz(i)));
+                if (FreezeReason.REDSTONE.in(reasons)) causes.add("redstone loop");
+                if (FreezeReason.LAG.in(reasons)) causes.add("region lag");
+                if (FreezeReason.CLUSTER.in(reasons)) causes.add("entity cluster");
+                String causeStr = causes.toString();
+                Component coords = Component.text("xyz(" + bx + ", ~, " + bz + ")", NamedTextColor.YELLOW)
+                        .clickEvent(ClickEvent.runCommand("/chunk go " + wName + " " + bx + " " + bz))
+                        .hoverEvent(HoverEvent.showText(Component.text("Click to teleport", NamedTextColor.GRAY)));
+                sender.sendMessage(Component.text(" » ", NamedTextColor.DARK_GRAY)
+                        .append(Component.text(wName + " ", NamedTextColor.WHITE))
+                        .append(coords)
+                        .append(Component.text(" (" + causeStr + ")", NamedTextColor.RED)));
+            }
+        }
+    }
+    private void handleRecent(CommandSender sender) {
+        FreezeDigest d = digest;
+        List<FreezeDigest.Entry> entries = d != null ? d.recent() : Collections.emptyList();
+        if (entries.isEmpty()) { sender.sendMessage(Component.text("No recent freezes.", NamedTextColor.GREEN)); return; }
+        sender.sendMessage(Component.text("Last Broadcast (" + entries.size() + "):", NamedTextColor.GOLD, TextDecoration.BOLD));
+        for (FreezeDigest.Entry e : entries) {
+            int bx = (e.cx() << 4) + 8, bz = (e.cz() << 4) + 8;
             Component coords = Component.text("xyz(" + bx + ", ~, " + bz + ")", NamedTextColor.YELLOW)
-                    .clickEvent(ClickEvent.runCommand("/chunk go " + wName + " " + bx + " " + bz))
+                    .clickEvent(ClickEvent.runCommand("/chunk go " + e.world() + " " + bx + " " + bz))
                     .hoverEvent(HoverEvent.showText(Component.text("Click to teleport", NamedTextColor.GRAY)));
             sender.sendMessage(Component.text(" » ", NamedTextColor.DARK_GRAY)
-                    .append(Component.text(wName + " ", NamedTextColor.WHITE))
+                    .append(Component.text(e.world() + " ", NamedTextColor.WHITE))
                     .append(coords)
-                    .append(Component.text(" (" + causeStr + ")", NamedTextColor.RED)));
+                    .append(Component.text(" (" + e.detail() + ")", NamedTextColor.RED)));
         }
     }
     private void handleReload(CommandSender sender) {
@@ -79,12 +111,13 @@ public final class ChunkCommand implements CommandExecutor, TabCompleter {
     private void sendHelp(CommandSender sender) {
         sender.sendMessage(Component.text("ChunkFreezer Commands:", NamedTextColor.GOLD, TextDecoration.BOLD));
         sender.sendMessage(Component.text(" /chunk list", NamedTextColor.YELLOW).append(Component.text("     Show frozen chunks", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text(" /chunk recent", NamedTextColor.YELLOW).append(Component.text("   Chunks of the last broadcast", NamedTextColor.GRAY)));
         sender.sendMessage(Component.text(" /chunk reload", NamedTextColor.YELLOW).append(Component.text("   Reload configuration", NamedTextColor.GRAY)));
     }
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (!sender.isOp() && !sender.hasPermission("chunkfreezer.admin")) return Collections.emptyList();
-        if (args.length == 1) return Arrays.asList("list", "reload");
+        if (args.length == 1) return Arrays.asList("list", "recent", "reload");
         return Collections.emptyList();
     }
 }
@@ -1,6 +1,7 @@
 package com.heonezen.chunkfreezer.config;
 
 import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.EntityType;
 
@@ -11,9 +12,28 @@ public final class Settings {
 
     public final boolean entitiesProtectionEnabled;
     public final long checkPeriodTicks;
+    public final boolean adaptiveCheckEnabled;
+    public final long adaptiveMinTicks;
+    public final long adaptiveMaxTicks;
+    public final boolean predictiveFreezeEnabled;
+    public final long predictiveHorizonTicks;
+    public final boolean clusterFreezeEnabled;
+    public final int clusterSuspiciousLoad;
+    public final int clusterFreezeLoad;
+    public final int clusterUnfreezeLoad;
+
+    public final boolean lagFreezeEnabled;
+    public final double  lagMaxMspt;
+    public final double  lagResumeMspt;
+    public final int     lagCheckSeconds;
+    public final int     lagChunksPerCheck;
+    public final int     lagMinLoad;
     public final int freezeThreshold;
     public final int unfreezeThreshold;
     public final boolean broadcast;
+    public final long    digestFlushTicks;
+    public final int     digestMaxMessages;
+    public final int     digestTopChunks;
     public final Set<EntityType> ignoredEntityTypes;
 
     public final boolean barrierEnabled;
@@ -21,12 +41,15 @@ public final class Settings {
     public final boolean allowFireworks;
     public final boolean watchItemsEnabled;
     public final boolean returnPlayerDroppedItem;
+    public final int     itemWatchRadius;
     public final boolean notifyWhenInFrozen;
     public final boolean watchLiquids;
     public final boolean watchPlayersEnabled;
     public final double  playerBounceMultiplier;
     public final double  damageOnEntry;
     public final int     particlesOnEntry;
+    public final int     particlesPerPlayer;
+    public final int     particlesPerTick;
     public final boolean watchEntitiesEnabled;
     public final double  entityBounceMultiplier;
 
@@ -53,10 +76,36 @@ public final class Settings {
     public final boolean instantDespawnNamedEntity;
     public final Set<EntityType> instantDespawnIgnoreTypes;
 
+    public final boolean entitySuspensionEnabled;
+
+    public final boolean persistenceEnabled;
+    public final long    persistenceCompactSeconds;
+
+    /** Entity weights are fixed-point in hundredths; a weight of {@code WEIGHT_UNIT} is one plain entity. */
+    public static final int WEIGHT_UNIT = 100;
+    /** Smallest gap kept between region-lag max-mspt and resume-mspt, so a region cannot flap. */
+    public static final double LAG_RESUME_MARGIN = 5.0;
+    private final int[] typeWeights;
+
+    public static final int TYPE_IGNORED          = 1;
+    public static final int TYPE_PURGE            = 1 << 1;
+    public static final int TYPE_DESPAWN_IGNORED  = 1 << 2;
+    private final byte[] typeFlags;
+
     public Settings(FileConfiguration cfg) {
         this.prefix = ChatColor.translateAlternateColorCodes('&', cfg.getString("prefix", "&8[&e⚡&8] "));
         this.entitiesProtectionEnabled = cfg.getBoolean("entities-protection.enabled", true);
         this.checkPeriodTicks = Math.max(20L, cfg.getLong("entities-protection.check-period-ticks", 40L));
+        this.adaptiveCheckEnabled = cfg.getBoolean("entities-protection.adaptive-check.enabled", true);
+        this.adaptiveMinTicks = Math.max(1L, Math.min(checkPeriodTicks, cfg.getLong("entities-protection.adaptive-check.min-ticks", 5L)));
+        this.adaptiveMaxTicks = Math.max(checkPeriodTicks, cfg.getLong("entities-protection.adaptive-check.max-ticks", 200L));
+        this.predictiveFreezeEnabled = cfg.getBoolean("entities-protection.predictive-freeze.enabled", true);
+        this.predictiveHorizonTicks = 20L * clampInt(cfg.getInt("entities-protection.predictive-freeze.horizon-seconds", 3), 1, 60);
+        this.clusterFreezeEnabled = cfg.getBoolean("entities-protection.cluster-freeze.enabled", false);
+        this.clusterSuspiciousLoad = Math.max(1, cfg.getInt("entities-protection.cluster-freeze.suspicious-load", 40));
+        int clusterFreeze = Math.max(clusterSuspiciousLoad * 2, cfg.getInt("entities-protection.cluster-freeze.freeze-load", 200));
+        this.clusterFreezeLoad = clusterFreeze;
+        this.clusterUnfreezeLoad = clampInt(cfg.getInt("entities-protection.cluster-freeze.unfreeze-load", 120), 0, clusterFreeze - 1);
 
         int unfreeze = Math.max(0, cfg.getInt("entities-protection.unfreeze-threshold", 50));
         int freeze   = Math.max(1, cfg.getInt("entities-protection.freeze-threshold", 100));
@@ -66,6 +115,9 @@ public final class Settings {
         this.destroyThreshold = Math.max(0, cfg.getInt("entities-protection.destroy-threshold", 300));
         this.allowCreeperExplosions = cfg.getBoolean("entities-protection.allow-creeper-explosions", true);
         this.broadcast = cfg.getBoolean("broadcast", true);
+        this.digestFlushTicks  = Math.max(1L, Math.round(cfg.getDouble("broadcast-digest.flush-seconds", 2.0) * 20.0));
+        this.digestMaxMessages = Math.max(1, cfg.getInt("broadcast-digest.max-messages", 3));
+        this.digestTopChunks   = Math.max(0, cfg.getInt("broadcast-digest.top-chunks", 5));
 
         List<String> ignoredRaw = cfg.getStringList("entities-protection.ignore-entity-types");
         if (ignoredRaw.isEmpty()) ignoredRaw = cfg.getStringList("ignore-entity-types");
@@ -76,6 +128,7 @@ public final class Settings {
         this.allowFireworks           = cfg.getBoolean("barrier.watch-projectiles.allow-fireworks", true);
         this.watchItemsEnabled        = cfg.getBoolean("barrier.watch-items.enabled", true);
         this.returnPlayerDroppedItem  = cfg.getBoolean("barrier.watch-items.return-player-dropped-item", true);
+        this.itemWatchRadius          = clampInt(cfg.getInt("barrier.watch-items.watch-radius", 2), 1, 8);
         this.notifyWhenInFrozen       = cfg.getBoolean("barrier.watch-players.notify-when-in-frozen", true);
         this.watchLiquids             = cfg.getBoolean("barrier.watch-liquids", true);
         this.watchPlayersEnabled      = cfg.getBoolean("barrier.watch-players.enabled", false);
@@ -83,6 +136,8 @@ public final class Settings {
         this.damageOnEntry            = clamp(cfg.getDouble("barrier.watch-players.damage-on-entry", 1.0), 0.0, 20.0);
         int rawParticles = cfg.getInt("barrier.watch-players.particles-on-entry", 4);
         this.particlesOnEntry         = rawParticles <= 0 ? 0 : Math.max(2, Math.min(16, rawParticles));
+        this.particlesPerPlayer       = Math.max(1, cfg.getInt("barrier.watch-players.particle-budget.per-player", 180));
+        this.particlesPerTick         = Math.max(particlesPerPlayer, cfg.getInt("barrier.watch-players.particle-budget.per-tick", 3000));
         this.watchEntitiesEnabled     = cfg.getBoolean("barrier.watch-entities.enabled", true);
         this.entityBounceMultiplier   = clamp(cfg.getDouble("barrier.watch-entities.bounce-multiplier", 0.75), 0.05, 1.25);
 
@@ -105,9 +160,41 @@ public final class Settings {
         this.instantDespawnRadius      = Math.max(1, cfg.getInt("instant-despawn.radius", 48));
         this.instantDespawnNamedEntity = cfg.getBoolean("instant-despawn.named-entity", false);
         this.instantDespawnIgnoreTypes = parseEntityTypes(cfg.getStringList("instant-despawn.ignore-entity-types"));
+
+        this.entitySuspensionEnabled   = cfg.getBoolean("entity-suspension.enabled", true);
+
+        this.lagFreezeEnabled          = cfg.getBoolean("region-lag.enabled", false);
+        this.lagMaxMspt                = clamp(cfg.getDouble("region-lag.max-mspt", 60.0), 50.0 + LAG_RESUME_MARGIN, 1000.0);
+        this.lagResumeMspt             = clamp(cfg.getDouble("region-lag.resume-mspt", 52.0), 50.0, lagMaxMspt - LAG_RESUME_MARGIN);
+        this.lagCheckSeconds           = clampInt(cfg.getInt("region-lag.check-seconds", 5), 1, 300);
+        this.lagChunksPerCheck         = clampInt(cfg.getInt("region-lag.chunks-per-check", 2), 1, 64);
+        this.lagMinLoad                = clampInt(cfg.getInt("region-lag.min-load", 30), 1, 100000);
+
+        this.persistenceEnabled        = cfg.getBoolean("persistence.enabled", true);
+        this.persistenceCompactSeconds = Math.max(30L, cfg.getLong("persistence.compact-interval-seconds", 300L));
+
+        EntityType[] types = EntityType.values();
+        Map<EntityType, Double> weights = parseWeights(cfg.getConfigurationSection("entities-protection.entity-weights"));
+        this.typeWeights = new int[types.length];
+        for (EntityType t : types) {
+            double w = ignoredEntityTypes.contains(t) ? 0.0 : weights.getOrDefault(t, 1.0);
+            typeWeights[t.ordinal()] = (int) Math.round(w * WEIGHT_UNIT);
+        }
+        this.typeFlags = new byte[types.length];
+        for (EntityType t : types) {
+            int f = 0;
+            if (ignoredEntityTypes.contains(t))        f |= TYPE_IGNORED;
+            if (overloadPurgeEntityTypes.contains(t))  f |= TYPE_PURGE;
+            if (instantDespawnIgnoreTypes.contains(t)) f |= TYPE_DESPAWN_IGNORED;
+            typeFlags[t.ordinal()] = (byte) f;
+        }
     }
 
-    public boolean isIgnored(EntityType t) { return ignoredEntityTypes.contains(t); }
+    /** {@code TYPE_*} bits of a type, resolved once at load. */
+    public int typeFlags(EntityType t) { return typeFlags[t.ordinal()]; }
+    /** Load weight of one entity of this type in {@link #WEIGHT_UNIT}s; 0 for ignored types. */
+    public int weight(EntityType t) { return typeWeights[t.ordinal()]; }
+    public boolean isIgnored(EntityType t) { return (typeFlags[t.ordinal()] & TYPE_IGNORED) != 0; }
     public boolean shouldPurgeProjectileType(EntityType t) { return overloadPurgeEntityTypes.contains(t); }
     public boolean isInstantDespawnIgnored(EntityType t) { return instantDespawnIgnoreTypes.contains(t); }
     private static Set<EntityType> parseEntityTypes(List<String> raw) {
@@ -120,6 +207,15 @@ public final class Settings {
         }
         return Collections.unmodifiableSet(set);
     }
+    private static Map<EntityType, Double> parseWeights(ConfigurationSection sec) {
+        if (sec == null) return Collections.emptyMap();
+        Map<EntityType, Double> out = new EnumMap<>(EntityType.class);
+        for (String key : sec.getKeys(false)) {
+            try { out.put(EntityType.valueOf(key.trim().toUpperCase(Locale.ROOT)), clamp(sec.getDouble(key, 1.0), 0.0, 1000.0)); }
+            catch (IllegalArgumentException ignored) {}
+        }
+        return out;
+    }
     private static double clamp(double v, double lo, double hi) { return Math.max(lo, Math.min(hi, v)); }
     private static int clampInt(int v, int lo, int hi) { return Math.max(lo, Math.min(hi, v)); }
 }
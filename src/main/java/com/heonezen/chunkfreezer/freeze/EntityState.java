@@ -1,11 +1,56 @@
 package com.heonezen.chunkfreezer.freeze;
 
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Mob;
+import org.bukkit.util.Vector;
+
 public final class EntityState {
-    public boolean wasSilent;
+    private static final int GRAVITY    = 1;
+    private static final int AI         = 1 << 1;
+    private static final int COLLIDABLE = 1 << 2;
+    private static final int MOB        = 1 << 3;
+    private static final int AWARE      = 1 << 4;
+
     public boolean hadGravity;
 
     public boolean hadAI;
     public boolean wasCollidable;
 
     public Boolean wasAware; // null if not a Mob
+
+    public static EntityState capture(Entity e) {
+        EntityState st = new EntityState();
+        st.hadGravity = e.hasGravity();
+        if (e instanceof LivingEntity le) { st.hadAI = le.hasAI(); st.wasCollidable = le.isCollidable(); }
+        if (e instanceof Mob mob) st.wasAware = mob.isAware();
+        return st;
+    }
+    public static void suspend(Entity e) {
+        e.setGravity(false);
+        e.setVelocity(new Vector());
+        if (e instanceof LivingEntity le) { le.setAI(false); le.setCollidable(false); }
+        if (e instanceof Mob mob) { mob.setTarget(null); mob.setAware(false); }
+    }
+    public void restore(Entity e) {
+        e.setGravity(hadGravity);
+        if (e instanceof LivingEntity le) { le.setAI(hadAI); le.setCollidable(wasCollidable); }
+        if (e instanceof Mob mob && wasAware != null) mob.setAware(wasAware);
+    }
+    public byte pack() {
+        int bits = 0;
+        if (hadGravity)    bits |= GRAVITY;
+        if (hadAI)         bits |= AI;
+        if (wasCollidable) bits |= COLLIDABLE;
+        if (wasAware != null) { bits |= MOB; if (wasAware) bits |= AWARE; }
+        return (byte) bits;
+    }
+    public static EntityState unpack(byte packed) {
+        EntityState st = new EntityState();
+        st.hadGravity    = (packed & GRAVITY) != 0;
+        st.hadAI         = (packed & AI) != 0;
+        st.wasCollidable = (packed & COLLIDABLE) != 0;
+        st.wasAware      = (packed & MOB) != 0 ? (packed & AWARE) != 0 : null;
+        return st;
+    }
 }
@@ -0,0 +1,50 @@
+package com.heonezen.chunkfreezer.freeze;
+
+import com.heonezen.chunkfreezer.config.Settings;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Stops entities in frozen chunks from ticking AI, gravity and collisions. The original
+ * {@link EntityState} is packed into one byte of the entity's PDC, so it is saved with the entity
+ * and restored exactly even after a restart.
+ */
+public final class EntitySuspender {
+
+    private final Settings settings;
+    private final NamespacedKey key;
+
+    public EntitySuspender(Plugin plugin, Settings settings) {
+        this.settings = settings;
+        this.key = new NamespacedKey(plugin, "suspended");
+    }
+    public boolean canSuspend(Entity e) {
+        return !(e instanceof Player) && !(e instanceof Item) && !(e instanceof Projectile)
+                && !settings.isIgnored(e.getType());
+    }
+    public boolean isSuspended(Entity e) { return e.getPersistentDataContainer().has(key, PersistentDataType.BYTE); }
+
+    public void suspend(Entity e) {
+        if (!canSuspend(e) || !e.isValid()) return;
+        PersistentDataContainer pdc = e.getPersistentDataContainer();
+        if (pdc.has(key, PersistentDataType.BYTE)) return;
+        pdc.set(key, PersistentDataType.BYTE, EntityState.capture(e).pack());
+        EntityState.suspend(e);
+    }
+    public void resume(Entity e) {
+        PersistentDataContainer pdc = e.getPersistentDataContainer();
+        Byte packed = pdc.get(key, PersistentDataType.BYTE);
+        if (packed == null) return;
+        pdc.remove(key);
+        EntityState.unpack(packed).restore(e);
+    }
+    public void suspendAll(Chunk chunk) { for (Entity e : chunk.getEntities()) suspend(e); }
+    public void resumeAll(Chunk chunk)  { for (Entity e : chunk.getEntities()) resume(e); }
+}
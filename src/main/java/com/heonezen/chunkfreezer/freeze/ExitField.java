@@ -0,0 +1,232 @@
+package com.heonezen.chunkfreezer.freeze;
+
+import com.heonezen.chunkfreezer.api.ChunkTransition;
+import com.heonezen.chunkfreezer.api.FreezeSubscriber;
+import com.heonezen.chunkfreezer.util.ChunkKey;
+import com.heonezen.chunkfreezer.util.LongIntMap;
+import com.heonezen.chunkfreezer.util.LongObjectMap;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distance from every frozen chunk to the nearest unfrozen one, kept per cluster of adjacent frozen
+ * chunks. Each cell records its distance and the frozen border chunk it leads to; border chunks
+ * also record which sides are open. A freeze or thaw recomputes only the clusters it touches, with
+ * one multi-source BFS from their borders on the global region thread. A lookup walks down the
+ * field to every equally near border and picks the exit nearest the origin. A lookup that finds no
+ * cell, or a stale one because the transition has not been delivered yet, queues a rebuild of that
+ * cluster and falls back to a small unlocked search; chunks where that search finds nothing are
+ * remembered until the frozen set changes.
+ */
+public final class ExitField implements FreezeSubscriber {
+
+    /** Frozen border chunk {@code (fx, fz)} and its unfrozen neighbour {@code (tx, tz)}. */
+    public record Exit(int fx, int fz, int tx, int tz) {}
+
+    private record Cell(int dist, long border, int open) {}
+
+    /** Lookup misses of one world at its current snapshot version, as {@link #QUEUED} and {@link #NO_EXIT} bits per chunk. */
+    private static final class Misses {
+        final LongIntMap keys = new LongIntMap();
+        long version = -1L;
+    }
+
+    private static final int   LIMIT = 4096;
+    private static final int   LOCAL_LIMIT = 512;
+    private static final int   TIES = 64;
+    private static final int   QUEUED = 1, NO_EXIT = 2;
+    private static final int[] DIR_X = {1, -1, 0, 0};
+    private static final int[] DIR_Z = {0, 0, 1, -1};
+
+    private final Plugin plugin;
+    private final FrozenChunkManager manager;
+    private final Map<UUID, LongObjectMap<Cell>> worlds = new ConcurrentHashMap<>();
+    private final Map<UUID, Misses> misses = new ConcurrentHashMap<>();
+
+    public ExitField(Plugin plugin, FrozenChunkManager manager) { this.plugin = plugin; this.manager = manager; }
+
+    /** Nearest way out of frozen chunk {@code (cx, cz)} for something at {@code (ox, oz)}; null if none is known. */
+    public Exit exit(World world, int cx, int cz, double ox, double oz) {
+        if (world == null || !manager.isFrozen(world, cx, cz)) return null;
+        LongObjectMap<Cell> map = cells(world.getUID());
+        long key = ChunkKey.pack(cx, cz);
+        Cell c = map.get(key);
+        Exit e = c == null ? null : descend(world, map, key, c.dist, ox, oz);
+        if (e != null) return e;
+        long version = manager.snapshot(world).version();
+        int seen = miss(world.getUID(), version, key, QUEUED);
+        if ((seen & NO_EXIT) != 0) return null;
+        if ((seen & QUEUED) == 0) queueRebuild(world, map, cx, cz);
+        e = search(world, cx, cz, ox, oz);
+        if (e == null) miss(world.getUID(), version, key, NO_EXIT);
+        return e;
+    }
+    /**
+     * Follows the field downhill from {@code key} to every border at the same distance, up to
+     * {@link #TIES} per step, and returns the open side nearest the origin. Null if the field is
+     * stale on the way.
+     */
+    private Exit descend(World world, LongObjectMap<Cell> map, long key, int dist, double ox, double oz) {
+        long[] level = {key};
+        int n = 1;
+        for (int d = dist; d > 1; d--) {
+            long[] next = new long[Math.min(TIES, n * 4)];
+            int m = 0;
+            for (int i = 0; i < n && m < next.length; i++) {
+                int x = ChunkKey.x(level[i]), z = ChunkKey.z(level[i]);
+                for (int s = 0; s < 4 && m < next.length; s++) {
+                    long nk = ChunkKey.pack(x + DIR_X[s], z + DIR_Z[s]);
+                    Cell nc = map.get(nk);
+                    if (nc == null || nc.dist != d - 1 || contains(next, m, nk)) continue;
+                    next[m++] = nk;
+                }
+            }
+            if (m == 0) return null;
+            level = next; n = m;
+        }
+        Exit best = null;
+        double bestSq = Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            int bx = ChunkKey.x(level[i]), bz = ChunkKey.z(level[i]);
+            Cell b = map.get(level[i]);
+            if (b == null || b.open == 0 || !manager.isFrozen(world, bx, bz)) continue;
+            for (int s = 0; s < 4; s++) {
+                if ((b.open & (1 << s)) == 0 || manager.isFrozen(world, bx + DIR_X[s], bz + DIR_Z[s])) continue;
+                double sq = sideSq(bx, bz, s, ox, oz);
+                if (sq < bestSq) { bestSq = sq; best = new Exit(bx, bz, bx + DIR_X[s], bz + DIR_Z[s]); }
+            }
+        }
+        return best;
+    }
+    /** Plain BFS of at most {@link #LOCAL_LIMIT} chunks from {@code (sx, sz)}, nearest ring first, ties by distance to the origin. */
+    private Exit search(World world, int sx, int sz, double ox, double oz) {
+        long[] keys = new long[64];
+        int[] dist = new int[64];
+        LongIntMap visited = new LongIntMap();
+        keys[0] = ChunkKey.pack(sx, sz);
+        visited.addTo(keys[0], 1);
+        int n = 1, bestDist = Integer.MAX_VALUE;
+        Exit best = null;
+        double bestSq = Double.MAX_VALUE;
+        for (int i = 0; i < n && i < LOCAL_LIMIT && dist[i] <= bestDist; i++) {
+            int x = ChunkKey.x(keys[i]), z = ChunkKey.z(keys[i]);
+            for (int s = 0; s < 4; s++) {
+                int nx = x + DIR_X[s], nz = z + DIR_Z[s];
+                if (!manager.isFrozen(world, nx, nz)) {
+                    double sq = sideSq(x, z, s, ox, oz);
+                    if (dist[i] < bestDist || sq < bestSq) { bestDist = dist[i]; bestSq = sq; best = new Exit(x, z, nx, nz); }
+                    continue;
+                }
+                long nk = ChunkKey.pack(nx, nz);
+                if (dist[i] + 1 > bestDist || visited.get(nk) > 0) continue;
+                if (n == keys.length) { keys = Arrays.copyOf(keys, n * 2); dist = Arrays.copyOf(dist, n * 2); }
+                visited.addTo(nk, 1);
+                keys[n] = nk; dist[n++] = dist[i] + 1;
+            }
+        }
+        return best;
+    }
+    /** Squared distance from the origin to the nearest point of side {@code s} of chunk {@code (bx, bz)}. */
+    private static double sideSq(int bx, int bz, int s, double ox, double oz) {
+        double minX = bx << 4, minZ = bz << 4;
+        double x = DIR_X[s] > 0 ? minX + 16 : DIR_X[s] < 0 ? minX : Math.max(minX, Math.min(minX + 16, ox));
+        double z = DIR_Z[s] > 0 ? minZ + 16 : DIR_Z[s] < 0 ? minZ : Math.max(minZ, Math.min(minZ + 16, oz));
+        return (x - ox) * (x - ox) + (z - oz) * (z - oz);
+    }
+    private static boolean contains(long[] keys, int n, long key) {
+        for (int i = 0; i < n; i++) if (keys[i] == key) return true;
+        return false;
+    }
+    /** Adds {@code bits} to the miss record of {@code key} at {@code version}; returns the bits it had before. */
+    private int miss(UUID worldId, long version, long key, int bits) {
+        Misses m = misses.computeIfAbsent(worldId, _k -> new Misses());
+        synchronized (m) {
+            if (m.version != version) { m.keys.clear(); m.version = version; }
+            int had = m.keys.get(key);
+            if ((had & bits) != bits) m.keys.addTo(key, bits & ~had);
+            return had;
+        }
+    }
+    private void queueRebuild(World world, LongObjectMap<Cell> map, int cx, int cz) {
+        try {
+            Bukkit.getGlobalRegionScheduler().execute(plugin, () -> { synchronized (map) { rebuild(world, map, cx, cz, null); } });
+        } catch (Throwable ignored) {}
+    }
+
+    @Override
+    public void onTransitions(List<ChunkTransition> batch) {
+        Map<UUID, LongIntMap> done = new HashMap<>();
+        for (ChunkTransition t : batch) {
+            boolean frozeNow = (t.kind() == ChunkTransition.Kind.FREEZE && t.reasons() == t.changed()) || t.kind() == ChunkTransition.Kind.RESTORE;
+            boolean thawed = (t.kind() == ChunkTransition.Kind.UNFREEZE && t.reasons() == 0) || t.kind() == ChunkTransition.Kind.EVICT;
+            if (!frozeNow && !thawed) continue;
+            World world = Bukkit.getWorld(t.worldId());
+            if (world == null) continue;
+            LongObjectMap<Cell> map = cells(t.worldId());
+            LongIntMap seen = done.computeIfAbsent(t.worldId(), _k -> new LongIntMap());
+            synchronized (map) {
+                if (thawed) map.remove(ChunkKey.pack(t.cx(), t.cz()));
+                rebuild(world, map, t.cx(), t.cz(), seen);
+                for (int i = 0; i < 4; i++) rebuild(world, map, t.cx() + DIR_X[i], t.cz() + DIR_Z[i], seen);
+            }
+        }
+    }
+    public void clear() { worlds.clear(); misses.clear(); }
+
+    private LongObjectMap<Cell> cells(UUID worldId) { return worlds.computeIfAbsent(worldId, _k -> new LongObjectMap<>()); }
+
+    /**
+     * Recomputes the cluster holding {@code (sx, sz)}, up to {@link #LIMIT} chunks. Chunks already in
+     * {@code seen} were rebuilt earlier in the same batch and are skipped. Caller holds the map's lock.
+     */
+    private void rebuild(World world, LongObjectMap<Cell> map, int sx, int sz, LongIntMap seen) {
+        long start = ChunkKey.pack(sx, sz);
+        if ((seen != null && seen.get(start) > 0) || !manager.isFrozen(world, sx, sz)) return;
+        long[] keys = new long[64];
+        LongIntMap index = new LongIntMap();
+        keys[0] = start;
+        index.addTo(start, 1);
+        int n = 1;
+        for (int i = 0; i < n && n < LIMIT; i++) {
+            int x = ChunkKey.x(keys[i]), z = ChunkKey.z(keys[i]);
+            for (int d = 0; d < 4 && n < LIMIT; d++) {
+                long nk = ChunkKey.pack(x + DIR_X[d], z + DIR_Z[d]);
+                if (index.get(nk) > 0 || !manager.isFrozen(world, x + DIR_X[d], z + DIR_Z[d])) continue;
+                if (n == keys.length) keys = Arrays.copyOf(keys, n * 2);
+                keys[n] = nk;
+                index.addTo(nk, ++n);
+            }
+        }
+        int[] dist = new int[n], queue = new int[n];
+        long[] border = new long[n];
+        int[] open = new int[n];
+        int head = 0, tail = 0;
+        for (int i = 0; i < n; i++) {
+            int x = ChunkKey.x(keys[i]), z = ChunkKey.z(keys[i]);
+            for (int d = 0; d < 4; d++) if (!manager.isFrozen(world, x + DIR_X[d], z + DIR_Z[d])) open[i] |= 1 << d;
+            if (open[i] != 0) { dist[i] = 1; border[i] = keys[i]; queue[tail++] = i; }
+        }
+        while (head < tail) {
+            int i = queue[head++];
+            int x = ChunkKey.x(keys[i]), z = ChunkKey.z(keys[i]);
+            for (int d = 0; d < 4; d++) {
+                int j = index.get(ChunkKey.pack(x + DIR_X[d], z + DIR_Z[d])) - 1;
+                if (j < 0 || dist[j] != 0) continue;
+                dist[j] = dist[i] + 1; border[j] = border[i]; queue[tail++] = j;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (seen != null) seen.addTo(keys[i], 1);
+            if (dist[i] == 0) map.remove(keys[i]);
+            else map.put(keys[i], new Cell(dist[i], border[i], open[i]));
+        }
+    }
+}
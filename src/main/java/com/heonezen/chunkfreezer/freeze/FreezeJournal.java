@@ -0,0 +1,210 @@
+package com.heonezen.chunkfreezer.freeze;
+
+import com.heonezen.chunkfreezer.api.FreezeReason;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of freeze transitions, written through a memory-mapped segment file.
+ * Each start opens a fresh segment; older segments are replayed once and, after
+ * {@link #markReplayed}, folded into {@code freeze.snapshot} by {@link #compact}, which then deletes them.
+ */
+final class FreezeJournal {
+
+    static final byte OP_FREEZE   = 1;
+    static final byte OP_UNFREEZE = 2;
+    static final byte OP_MUTE     = 3;
+    static final byte OP_LOCK     = 4;
+
+    /** {@code reasons} is the {@link FreezeReason} mask set by OP_FREEZE or cleared by OP_UNFREEZE. */
+    interface Sink { void accept(byte op, UUID worldId, int cx, int cz, byte reasons, long value); }
+    interface Source { void forEach(Sink sink); }
+
+    private static final int    MAGIC    = 0x43464A31;
+    private static final int    VERSION  = 1;
+    private static final int    HEADER   = 16;
+    private static final int    RECORD   = 40;
+    private static final int    SEGMENT_INITIAL = HEADER + RECORD * 16384;
+    private static final String SNAPSHOT = "freeze.snapshot";
+    private static final String SEGMENT_PREFIX = "freeze-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path dir;
+    private final Logger log;
+    private final List<Path> pending = new ArrayList<>();
+    private final Object compactLock = new Object();
+    private long seq;
+    private FileChannel channel;
+    private MappedByteBuffer buf;
+    private int pos;
+    private volatile boolean replayed, closed;
+
+    FreezeJournal(Path dir, Logger log) throws IOException {
+        this.dir = dir;
+        this.log = log;
+        Files.createDirectories(dir);
+        long covered = readSnapshotCovered();
+        long max = covered - 1;
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                long s = segmentSeq(p);
+                if (s < 0) continue;
+                if (s < covered) { deleteQuietly(p); continue; }
+                segments.put(s, p);
+                max = Math.max(max, s);
+            }
+        }
+        pending.addAll(segments.values());
+        openSegment(max + 1);
+    }
+    private static long segmentSeq(Path p) {
+        String n = p.getFileName().toString();
+        if (!n.startsWith(SEGMENT_PREFIX) || !n.endsWith(SEGMENT_SUFFIX)) return -1;
+        try { return Long.parseLong(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length())); }
+        catch (NumberFormatException e) { return -1; }
+    }
+    private Path segmentPath(long s) { return dir.resolve(SEGMENT_PREFIX + s + SEGMENT_SUFFIX); }
+    private long readSnapshotCovered() throws IOException {
+        Path p = dir.resolve(SNAPSHOT);
+        if (!Files.exists(p)) return 0L;
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            ByteBuffer h = ByteBuffer.allocate(HEADER);
+            while (h.hasRemaining() && ch.read(h) >= 0) {}
+            h.flip();
+            if (h.remaining() < HEADER || h.getInt() != MAGIC || h.getInt() != VERSION) return 0L;
+            return h.getLong();
+        }
+    }
+    private void openSegment(long s) throws IOException {
+        seq = s;
+        channel = FileChannel.open(segmentPath(s), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_INITIAL);
+        buf.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, s);
+        pos = HEADER;
+    }
+    private void closeSegment() {
+        try { buf.force(); channel.close(); }
+        catch (IOException e) { log.log(Level.WARNING, "Failed to close freeze journal segment " + seq, e); }
+    }
+    synchronized void append(byte op, UUID worldId, int cx, int cz, byte reasons, long value) {
+        if (closed) return;
+        try {
+            if (pos + RECORD > buf.capacity())
+                buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) buf.capacity() * 2);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to grow freeze journal segment " + seq, e);
+            return;
+        }
+        buf.put(pos + 1, reasons)
+           .putInt(pos + 4, cx).putInt(pos + 8, cz)
+           .putLong(pos + 12, worldId.getMostSignificantBits())
+           .putLong(pos + 20, worldId.getLeastSignificantBits())
+           .putLong(pos + 28, value)
+           .put(pos, op);
+        pos += RECORD;
+    }
+    void replay(Sink sink) {
+        try {
+            Path snap = dir.resolve(SNAPSHOT);
+            if (Files.exists(snap)) read(snap, sink);
+            for (Path p : pending) read(p, sink);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to replay freeze journal", e);
+        }
+    }
+    void markReplayed() { replayed = true; }
+    private static void read(Path p, Sink sink) throws IOException {
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER) return;
+            MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (in.getInt(0) != MAGIC || in.getInt(4) != VERSION) return;
+            for (int at = HEADER; at + RECORD <= size; at += RECORD) {
+                byte op = in.get(at);
+                if (op == 0) break;
+                UUID worldId = new UUID(in.getLong(at + 12), in.getLong(at + 20));
+                sink.accept(op, worldId, in.getInt(at + 4), in.getInt(at + 8), in.get(at + 1), in.getLong(at + 28));
+            }
+        }
+    }
+    void compact(Source source) {
+        synchronized (compactLock) { compactLocked(source); }
+    }
+    private void compactLocked(Source source) {
+        if (!replayed || closed) return;
+        long covered;
+        synchronized (this) {
+            if (closed) return;
+            closeSegment();
+            try { openSegment(seq + 1); }
+            catch (IOException e) {
+                closed = true;
+                log.log(Level.WARNING, "Failed to rotate freeze journal, persistence disabled", e);
+                return;
+            }
+            covered = seq;
+        }
+        Path tmp = dir.resolve(SNAPSHOT + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer b = ByteBuffer.allocate(RECORD * 1024);
+            b.putInt(MAGIC).putInt(VERSION).putLong(covered);
+            IOException[] failure = new IOException[1];
+            source.forEach((op, worldId, cx, cz, reasons, value) -> {
+                if (failure[0] != null) return;
+                if (b.remaining() < RECORD) {
+                    try { drain(out, b); } catch (IOException e) { failure[0] = e; return; }
+                }
+                b.put(op).put(reasons).putShort((short) 0).putInt(cx).putInt(cz)
+                 .putLong(worldId.getMostSignificantBits()).putLong(worldId.getLeastSignificantBits())
+                 .putLong(value).putInt(0);
+            });
+            if (failure[0] != null) throw failure[0];
+            drain(out, b);
+            out.force(true);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to write freeze snapshot", e);
+            return;
+        }
+        try {
+            Files.move(tmp, dir.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to publish freeze snapshot", e);
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                long s = segmentSeq(p);
+                if (s >= 0 && s < covered) deleteQuietly(p);
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to prune freeze journal segments", e);
+        }
+        pending.clear();
+    }
+    private static void drain(FileChannel out, ByteBuffer b) throws IOException {
+        b.flip();
+        while (b.hasRemaining()) out.write(b);
+        b.clear();
+    }
+    private void deleteQuietly(Path p) {
+        try { Files.deleteIfExists(p); }
+        catch (IOException e) { log.log(Level.FINE, "Could not delete " + p, e); }
+    }
+    void close(Source source) {
+        compact(source);
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            closeSegment();
+        }
+    }
+}
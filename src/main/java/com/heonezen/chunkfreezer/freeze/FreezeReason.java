@@ -1,6 +0,0 @@
-package com.heonezen.chunkfreezer.freeze;
-
-public enum FreezeReason {
-    ENTITY,
-    REDSTONE
-}
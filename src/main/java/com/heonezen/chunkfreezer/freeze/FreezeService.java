@@ -0,0 +1,48 @@
+package com.heonezen.chunkfreezer.freeze;
+
+import com.heonezen.chunkfreezer.api.ChunkFreezerApi;
+import com.heonezen.chunkfreezer.api.FreezeSubscriber;
+import com.heonezen.chunkfreezer.api.FrozenChunk;
+import com.heonezen.chunkfreezer.api.FrozenView;
+import org.bukkit.World;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class FreezeService implements ChunkFreezerApi {
+
+    private final TransitionBus bus;
+    private volatile FrozenChunkManager manager;
+
+    public FreezeService(TransitionBus bus) { this.bus = bus; }
+
+    public void setManager(FrozenChunkManager manager) { this.manager = manager; }
+
+    @Override
+    public boolean isFrozen(World world, int cx, int cz) {
+        FrozenChunkManager m = manager;
+        return m != null && m.isFrozen(world, cx, cz);
+    }
+    @Override
+    public boolean isRedstoneMuted(World world, int cx, int cz) {
+        FrozenChunkManager m = manager;
+        return m != null && m.isRedstoneMuted(world, cx, cz);
+    }
+    @Override
+    public List<FrozenChunk> getFrozenChunks() {
+        FrozenChunkManager m = manager;
+        return m != null ? m.getFrozenChunks() : Collections.emptyList();
+    }
+    @Override
+    public FrozenView snapshot(World world) {
+        FrozenChunkManager m = manager;
+        return m != null ? m.snapshot(world) : new FrozenSnapshot(world.getUID(), 0L, new long[0], new int[0]);
+    }
+    @Override
+    public long version() {
+        FrozenChunkManager m = manager;
+        return m != null ? m.version() : 0L;
+    }
+    @Override public void subscribe(FreezeSubscriber subscriber)   { bus.subscribe(subscriber); }
+    @Override public void unsubscribe(FreezeSubscriber subscriber) { bus.unsubscribe(subscriber); }
+}
@@ -1,94 +1,505 @@
 package com.heonezen.chunkfreezer.freeze;
 
+import com.heonezen.chunkfreezer.api.ChunkTransition;
+import com.heonezen.chunkfreezer.api.FreezeReason;
+import com.heonezen.chunkfreezer.api.FrozenChunk;
 import com.heonezen.chunkfreezer.config.Settings;
+import com.heonezen.chunkfreezer.util.ChunkKey;
+import com.heonezen.chunkfreezer.util.LongObjectMap;
+import com.heonezen.chunkfreezer.util.TimingWheel;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.*;
 import org.bukkit.plugin.Plugin;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 
 public final class FrozenChunkManager {
-    public enum FreezeCause { ENTITY, REDSTONE }
-    public record FrozenInfo(UUID worldId, int cx, int cz, FreezeCause cause, int entityCount) {}
     private static final class ChunkState {
-        final FreezeCause cause;
+        final UUID worldId;
+        final int cx, cz;
         final long frozenSinceMs;
+        volatile int reasons;   // written under synchronized (this)
+        boolean removed;        // set once reasons drop to zero; the state is then never reused
         volatile long unfreezeLockUntilMs = 0L;
         volatile long redstoneMuteUntilMs = 0L;
         volatile int  lastEntityCount     = 0;
+        volatile boolean unfreezeLocked;
+        volatile boolean redstoneMuted;
+        TimingWheel.Timeout lockTimer;
+        TimingWheel.Timeout muteTimer;
 
-        ChunkState(FreezeCause cause) {
-            this.cause = cause;
-            this.frozenSinceMs = System.currentTimeMillis();
+        ChunkState(UUID worldId, int cx, int cz, int reasons) { this(worldId, cx, cz, reasons, System.currentTimeMillis()); }
+        ChunkState(UUID worldId, int cx, int cz, int reasons, long frozenSinceMs) {
+            this.worldId = worldId;
+            this.cx = cx;
+            this.cz = cz;
+            this.reasons = reasons;
+            this.frozenSinceMs = frozenSinceMs;
         }
     }
+    private static final class WorldIndex {
+        private static final int SECTION_SHIFT = 4;
+        private static final int SECTION_SLOTS = 4096;
+
+        final UUID worldId;
+        final AtomicLong versions;
+        final LongObjectMap<ChunkState> states  = new LongObjectMap<>();
+        final LongObjectMap<ChunkState> dormant = new LongObjectMap<>();
+        final int[] sections = new int[SECTION_SLOTS];
+        volatile long version;
+        volatile FrozenSnapshot snapshot;
+
+        WorldIndex(UUID worldId, AtomicLong versions) {
+            this.worldId = worldId;
+            this.versions = versions;
+            this.version = versions.incrementAndGet();
+        }
+
+        private static int section(int cx, int cz) {
+            int h = (cx >> SECTION_SHIFT) * 0x9E3779B1 ^ (cz >> SECTION_SHIFT) * 0x85EBCA77;
+            return (h ^ (h >>> 16)) & (SECTION_SLOTS - 1);
+        }
+        ChunkState get(int cx, int cz) {
+            if (sections[section(cx, cz)] == 0) return null;
+            return states.get(ChunkKey.pack(cx, cz));
+        }
+        FrozenSnapshot snapshot() {
+            FrozenSnapshot snap = snapshot;
+            if (snap != null && snap.version() == version) return snap;
+            synchronized (this) {
+                snap = snapshot;
+                long v = version;
+                if (snap != null && snap.version() == v) return snap;
+                int n = states.size();
+                long[] keys = new long[n];
+                int[] reasons = new int[n];
+                int[] at = {0};
+                states.forEach((key, st) -> {
+                    keys[at[0]] = key;
+                    reasons[at[0]++] = st.reasons;
+                });
+                snap = new FrozenSnapshot(worldId, v, keys, reasons);
+                snapshot = snap;
+                return snap;
+            }
+        }
+        private void changed(int cx, int cz, int delta) {
+            sections[section(cx, cz)] += delta;
+            version = versions.incrementAndGet();
+        }
+        synchronized ChunkState putIfAbsent(int cx, int cz, ChunkState st) {
+            ChunkState cur = states.putIfAbsent(ChunkKey.pack(cx, cz), st);
+            if (cur == null) changed(cx, cz, 1);
+            return cur;
+        }
+        /** Drops {@code st} from whichever table holds it; returns true if it was live. */
+        synchronized boolean remove(int cx, int cz, ChunkState st) {
+            long key = ChunkKey.pack(cx, cz);
+            if (states.get(key) == st) {
+                states.remove(key);
+                changed(cx, cz, -1);
+                return true;
+            }
+            if (dormant.get(key) == st) dormant.remove(key);
+            return false;
+        }
+        synchronized void touch(int cx, int cz) { changed(cx, cz, 0); }
+        ChunkState find(int cx, int cz) {
+            ChunkState st = get(cx, cz);
+            return st != null || dormant.isEmpty() ? st : dormant.get(ChunkKey.pack(cx, cz));
+        }
+        /** Moves a live state to the dormant table; returns it, or null if there was none. */
+        synchronized ChunkState evict(int cx, int cz) {
+            long key = ChunkKey.pack(cx, cz);
+            ChunkState old = states.remove(key);
+            if (old == null) return null;
+            changed(cx, cz, -1);
+            dormant.put(key, old);
+            return old;
+        }
+        /** Moves a dormant state back to the live table; returns it, or null if there was none. */
+        synchronized ChunkState restore(int cx, int cz) {
+            long key = ChunkKey.pack(cx, cz);
+            ChunkState st = dormant.remove(key);
+            if (st == null || states.putIfAbsent(key, st) != null) return null;
+            changed(cx, cz, 1);
+            return st;
+        }
+        /** Files a replayed state as dormant unless the chunk already has one; returns true if it did. */
+        synchronized boolean addDormant(long key, ChunkState st) {
+            return states.get(key) == null && dormant.putIfAbsent(key, st) == null;
+        }
+        /** Live and dormant states in one consistent cut, so a chunk moving between them is never missed. */
+        synchronized List<ChunkState> copyAll() {
+            List<ChunkState> out = new ArrayList<>(states.size() + dormant.size());
+            states.forEach((key, st) -> out.add(st));
+            dormant.forEach((key, st) -> out.add(st));
+            return out;
+        }
+        synchronized void clear() {
+            states.clear();
+            dormant.clear();
+            Arrays.fill(sections, 0);
+            version = versions.incrementAndGet();
+        }
+    }
+    private final Plugin plugin;
     private final Settings settings;
-    private final Map<ChunkId, ChunkState> chunks = new ConcurrentHashMap<>();
-    public FrozenChunkManager(Plugin plugin, Settings settings) {
+    private final Object worldsLock = new Object();
+    private volatile WorldIndex[] worlds = new WorldIndex[0];
+    private final AtomicInteger frozenCount = new AtomicInteger();
+    private final AtomicLong versions = new AtomicLong();
+    private final FreezeJournal journal;
+    private final TransitionBus bus;
+    private final TimingWheel wheel = new TimingWheel();
+    private ScheduledTask wheelTask;
+    private ScheduledTask compactTask;
+    private ScheduledTask replayTask;
+    private volatile boolean closed;
+    private final CompletableFuture<Void> replayed = new CompletableFuture<>();
+    public FrozenChunkManager(Plugin plugin, Settings settings, TransitionBus bus) {
+        this.plugin = plugin;
         this.settings = settings;
+        this.bus = bus;
+        this.journal = settings.persistenceEnabled ? openJournal() : null;
+    }
+    private FreezeJournal openJournal() {
+        try {
+            return new FreezeJournal(plugin.getDataFolder().toPath().resolve("journal"), plugin.getLogger());
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to open freeze journal, frozen chunks will not persist", e);
+            return null;
+        }
+    }
+    public void start() {
+        wheelTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, _t -> {
+            wheel.advance();
+            bus.flush();
+        }, 1L, 1L);
+        if (journal == null) { replayed.complete(null); return; }
+        replayTask = Bukkit.getAsyncScheduler().runNow(plugin, _t -> {
+            Map<UUID, LongObjectMap<ChunkState>> replayed = new HashMap<>();
+            journal.replay((op, worldId, cx, cz, reasons, value) -> replayRecord(replayed, op, worldId, cx, cz, reasons, value));
+            synchronized (worldsLock) {
+                if (closed) return;
+                replayed.forEach((worldId, states) -> {
+                    WorldIndex wi = indexOrCreate(worldId);
+                    states.forEach((key, st) -> {
+                        if (!wi.addDormant(key, st)) return;
+                        armMute(st);
+                        armLock(st, FreezeReason.REDSTONE.in(st.reasons) ? () -> clearReasons(worldId, st.cx, st.cz, FreezeReason.REDSTONE.bit()) : null);
+                    });
+                });
+                journal.markReplayed();
+            }
+            restoreLoaded();
+            replayed.complete(null);
+            journal.compact(this::writeSnapshot);
+        });
+        long period = settings.persistenceCompactSeconds;
+        compactTask = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, _t -> journal.compact(this::writeSnapshot), period, period, TimeUnit.SECONDS);
+    }
+    private static void replayRecord(Map<UUID, LongObjectMap<ChunkState>> out, byte op, UUID worldId, int cx, int cz, byte reasons, long value) {
+        LongObjectMap<ChunkState> states = out.computeIfAbsent(worldId, _k -> new LongObjectMap<>());
+        long key = ChunkKey.pack(cx, cz);
+        ChunkState st = states.get(key);
+        int mask = reasons & 0xFF;
+        switch (op) {
+            case FreezeJournal.OP_FREEZE -> {
+                if (st == null) states.put(key, new ChunkState(worldId, cx, cz, mask, value));
+                else st.reasons |= mask;
+            }
+            case FreezeJournal.OP_UNFREEZE -> {
+                if (st != null && (st.reasons &= ~mask) == 0) states.remove(key);
+            }
+            case FreezeJournal.OP_MUTE -> { if (st != null) st.redstoneMuteUntilMs = value; }
+            case FreezeJournal.OP_LOCK -> { if (st != null) st.unfreezeLockUntilMs = value; }
+            default -> {}
+        }
+    }
+    private void restoreLoaded() {
+        if (closed) return;
+        for (WorldIndex wi : worlds) {
+            World w = Bukkit.getWorld(wi.worldId);
+            if (w == null) continue;
+            wi.dormant.forEach((key, st) -> {
+                int cx = ChunkKey.x(key), cz = ChunkKey.z(key);
+                Bukkit.getRegionScheduler().execute(plugin, w, cx, cz, () -> {
+                    if (w.isChunkLoaded(cx, cz)) restored(wi, cx, cz, wi.restore(cx, cz));
+                });
+            });
+        }
+    }
+    private void writeSnapshot(FreezeJournal.Sink sink) {
+        long now = System.currentTimeMillis();
+        for (WorldIndex wi : worlds) {
+            for (ChunkState st : wi.copyAll()) {
+                int reasons = st.reasons;
+                if (reasons == 0) continue;
+                sink.accept(FreezeJournal.OP_FREEZE, wi.worldId, st.cx, st.cz, (byte) reasons, st.frozenSinceMs);
+                long mute = st.redstoneMuteUntilMs, lock = st.unfreezeLockUntilMs;
+                if (mute != 0L) sink.accept(FreezeJournal.OP_MUTE, wi.worldId, st.cx, st.cz, (byte) 0, mute);
+                if (lock > now) sink.accept(FreezeJournal.OP_LOCK, wi.worldId, st.cx, st.cz, (byte) 0, lock);
+            }
+        }
+    }
+    private static long ticksUntil(long untilMs) {
+        long ms = untilMs - System.currentTimeMillis();
+        return ms <= 0L ? 0L : (ms + 49L) / 50L;
+    }
+    private void armMute(ChunkState st) {
+        synchronized (st) {
+            wheel.cancel(st.muteTimer);
+            st.muteTimer = null;
+            long until = st.redstoneMuteUntilMs;
+            long ticks = until == Long.MAX_VALUE ? 0L : ticksUntil(until);
+            st.redstoneMuted = until == Long.MAX_VALUE || ticks > 0L;
+            if (ticks > 0L) st.muteTimer = wheel.schedule(ticks, t -> {
+                synchronized (st) {
+                    if (st.muteTimer != t) return;
+                    st.muteTimer = null;
+                    st.redstoneMuted = false;
+                    st.redstoneMuteUntilMs = 0L;
+                }
+                bus.publish(ChunkTransition.Kind.UNMUTE, st.worldId, st.cx, st.cz, 0, st.reasons, 0L);
+            });
+        }
+    }
+    /** Arms the unfreeze lock; {@code onExpire} runs when it lapses, on the next tick if it already has. */
+    private void armLock(ChunkState st, Runnable onExpire) {
+        synchronized (st) {
+            wheel.cancel(st.lockTimer);
+            st.lockTimer = null;
+            long ticks = ticksUntil(st.unfreezeLockUntilMs);
+            st.unfreezeLocked = ticks > 0L;
+            if (ticks > 0L || onExpire != null) st.lockTimer = wheel.schedule(Math.max(1L, ticks), t -> {
+                synchronized (st) {
+                    if (st.lockTimer != t) return;
+                    st.lockTimer = null;
+                    st.unfreezeLocked = false;
+                }
+                if (onExpire != null) onExpire.run();
+            });
+        }
+    }
+    private void disarm(ChunkState st) {
+        synchronized (st) {
+            wheel.cancel(st.muteTimer);
+            wheel.cancel(st.lockTimer);
+            st.muteTimer = st.lockTimer = null;
+        }
+    }
+    private void record(byte op, UUID worldId, int cx, int cz, byte reasons, long value) {
+        if (journal != null) journal.append(op, worldId, cx, cz, reasons, value);
+    }
+    private WorldIndex index(World world) {
+        return index(world.getUID());
+    }
+    private WorldIndex index(UUID id) {
+        for (WorldIndex wi : worlds) if (wi.worldId.equals(id)) return wi;
+        return null;
+    }
+    private WorldIndex indexOrCreate(UUID id) {
+        WorldIndex wi = index(id);
+        if (wi != null) return wi;
+        synchronized (worldsLock) {
+            wi = index(id);
+            if (wi != null) return wi;
+            WorldIndex[] cur = worlds;
+            WorldIndex[] next = Arrays.copyOf(cur, cur.length + 1);
+            next[cur.length] = wi = new WorldIndex(id, versions);
+            worlds = next;
+            return wi;
+        }
+    }
+    private ChunkState state(World world, int cx, int cz) {
+        WorldIndex wi = index(world);
+        return wi != null ? wi.get(cx, cz) : null;
+    }
+    /**
+     * Adds {@code mask} to the chunk's reasons, creating its state if needed. Returns the state
+     * now holding the chunk; {@code fresh} is only inserted when nothing else is.
+     */
+    private ChunkState addReasons(World world, int cx, int cz, int mask, ChunkState fresh) {
+        UUID id = world.getUID();
+        WorldIndex wi = indexOrCreate(id);
+        while (true) {
+            ChunkState st = wi.get(cx, cz);
+            if (st == null) {
+                ChunkState st0 = fresh != null ? fresh : new ChunkState(id, cx, cz, mask);
+                if (wi.putIfAbsent(cx, cz, st0) != null) continue;
+                frozenCount.incrementAndGet();
+                record(FreezeJournal.OP_FREEZE, id, cx, cz, (byte) mask, st0.frozenSinceMs);
+                bus.publish(ChunkTransition.Kind.FREEZE, id, cx, cz, mask, mask, 0L);
+                return st0;
+            }
+            int added, now;
+            synchronized (st) {
+                if (st.removed) { Thread.onSpinWait(); continue; }
+                added = mask & ~st.reasons;
+                now = st.reasons |= mask;
+            }
+            if (added == 0) return st;
+            wi.touch(cx, cz);
+            record(FreezeJournal.OP_FREEZE, id, cx, cz, (byte) added, st.frozenSinceMs);
+            bus.publish(ChunkTransition.Kind.FREEZE, id, cx, cz, added, now, 0L);
+            return st;
+        }
     }
     public boolean isIgnored(EntityType type) { return settings.isIgnored(type); }
-    public boolean hasAnyFrozenChunks() { return !chunks.isEmpty(); }
+    public boolean hasAnyFrozenChunks() { return frozenCount.get() > 0; }
     public boolean isFrozen(World world, int cx, int cz) {
-        return chunks.containsKey(ChunkId.of(world, cx, cz));
+        return state(world, cx, cz) != null;
     }
     public boolean isFrozen(Location loc) {
-        return chunks.containsKey(ChunkId.fromLocation(loc));
+        World w = loc.getWorld();
+        return w != null && isFrozen(w, loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+    }
+    public boolean isFrozenFor(World world, int cx, int cz, FreezeReason reason) {
+        return reason.in(getFreezeReasons(world, cx, cz));
     }
-    public FreezeCause getFreezeCause(World world, int cx, int cz) {
-        ChunkState st = chunks.get(ChunkId.of(world, cx, cz));
-        return st != null ? st.cause : null;
+    /** {@link FreezeReason} bitmask of a loaded chunk, 0 if it is not frozen. */
+    public int getFreezeReasons(World world, int cx, int cz) {
+        ChunkState st = state(world, cx, cz);
+        return st != null ? st.reasons : 0;
     }
     public void lockUnfreezeUntil(World world, int cx, int cz, long untilMs) {
-        ChunkState st = chunks.get(ChunkId.of(world, cx, cz));
-        if (st != null) st.unfreezeLockUntilMs = untilMs;
+        lockUnfreezeUntil(world, cx, cz, untilMs, null);
+    }
+    public void lockUnfreezeUntil(World world, int cx, int cz, long untilMs, Runnable onExpire) {
+        ChunkState st = state(world, cx, cz);
+        if (st == null) return;
+        st.unfreezeLockUntilMs = untilMs;
+        armLock(st, onExpire);
+        record(FreezeJournal.OP_LOCK, world.getUID(), cx, cz, (byte) 0, untilMs);
     }
     public boolean isUnfreezeLocked(World world, int cx, int cz) {
-        ChunkState st = chunks.get(ChunkId.of(world, cx, cz));
-        return st != null && System.currentTimeMillis() < st.unfreezeLockUntilMs;
+        ChunkState st = state(world, cx, cz);
+        return st != null && st.unfreezeLocked;
     }
     public void muteRedstone(World world, int cx, int cz, long untilMs) {
-        ChunkId id = ChunkId.of(world, cx, cz);
-        ChunkState st = chunks.get(id);
-        if (st != null) {
-            st.redstoneMuteUntilMs = untilMs;
-        } else {
-            ChunkState ghost = new ChunkState(FreezeCause.REDSTONE);
-            ghost.redstoneMuteUntilMs = untilMs;
-            chunks.putIfAbsent(id, ghost);
-        }
+        ChunkState fresh = new ChunkState(world.getUID(), cx, cz, FreezeReason.REDSTONE.bit());
+        fresh.redstoneMuteUntilMs = untilMs;
+        ChunkState st = addReasons(world, cx, cz, FreezeReason.REDSTONE.bit(), fresh);
+        st.redstoneMuteUntilMs = untilMs;
+        armMute(st);
+        record(FreezeJournal.OP_MUTE, world.getUID(), cx, cz, (byte) 0, untilMs);
+        bus.publish(ChunkTransition.Kind.MUTE, world.getUID(), cx, cz, 0, st.reasons, untilMs);
     }
     public boolean isRedstoneMuted(World world, int cx, int cz) {
-        ChunkState st = chunks.get(ChunkId.of(world, cx, cz));
-        if (st == null) return false;
-        long until = st.redstoneMuteUntilMs;
-        if (until == Long.MAX_VALUE) return true;
-        if (until == 0L) return false;
-        if (System.currentTimeMillis() < until) return true;
-        st.redstoneMuteUntilMs = 0L;
-        return false;
+        ChunkState st = state(world, cx, cz);
+        return st != null && st.redstoneMuted;
     }
     public void unmuteRedstone(World world, int cx, int cz) {
-        ChunkState st = chunks.get(ChunkId.of(world, cx, cz));
-        if (st != null) st.redstoneMuteUntilMs = 0L;
+        ChunkState st = state(world, cx, cz);
+        if (st == null) return;
+        st.redstoneMuteUntilMs = 0L;
+        armMute(st);
+        record(FreezeJournal.OP_MUTE, world.getUID(), cx, cz, (byte) 0, 0L);
+        bus.publish(ChunkTransition.Kind.UNMUTE, world.getUID(), cx, cz, 0, st.reasons, 0L);
     }
     public void updateEntityCount(World world, int cx, int cz, int count) {
-        ChunkState st = chunks.get(ChunkId.of(world, cx, cz));
+        ChunkState st = state(world, cx, cz);
         if (st != null) st.lastEntityCount = count;
     }
-    public List<FrozenInfo> getFrozenChunks() {
-        List<FrozenInfo> out = new ArrayList<>(chunks.size());
-        for (Map.Entry<ChunkId, ChunkState> e : chunks.entrySet()) {
-            ChunkId id = e.getKey(); ChunkState st = e.getValue();
-            out.add(new FrozenInfo(id.worldId(), id.x(), id.z(), st.cause, st.lastEntityCount));
+    /**
+     * Runs {@code action} once the journal has been replayed into the index, right away if it
+     * already has; never after {@link #shutdown}. May run on an async thread.
+     */
+    public void whenReplayed(Runnable action) { replayed.thenRun(() -> { if (!closed) action.run(); }); }
+    public long version() { return versions.get(); }
+    public FrozenSnapshot snapshot(World world) {
+        return indexOrCreate(world.getUID()).snapshot();
+    }
+    public List<FrozenSnapshot> snapshots() {
+        WorldIndex[] ws = worlds;
+        List<FrozenSnapshot> out = new ArrayList<>(ws.length);
+        for (WorldIndex wi : ws) out.add(wi.snapshot());
+        return out;
+    }
+    public int getEntityCount(UUID worldId, int cx, int cz) {
+        WorldIndex wi = index(worldId);
+        ChunkState st = wi != null ? wi.get(cx, cz) : null;
+        return st != null ? st.lastEntityCount : 0;
+    }
+    public List<FrozenChunk> getFrozenChunks() {
+        List<FrozenChunk> out = new ArrayList<>(frozenCount.get());
+        for (WorldIndex wi : worlds) {
+            wi.states.forEach((key, st) -> out.add(new FrozenChunk(wi.worldId, ChunkKey.x(key), ChunkKey.z(key), st.reasons, st.lastEntityCount)));
         }
         return Collections.unmodifiableList(out);
     }
-    public void freezeChunk(Chunk chunk) { freezeChunk(chunk, FreezeCause.ENTITY); }
-    public void freezeChunk(Chunk chunk, FreezeCause cause) { chunks.putIfAbsent(ChunkId.of(chunk.getWorld(), chunk.getX(), chunk.getZ()), new ChunkState(cause)); }
-    public void unfreezeChunk(Chunk chunk) { chunks.remove(ChunkId.of(chunk.getWorld(), chunk.getX(), chunk.getZ())); }
-    public void shutdown() { chunks.clear(); }
+    public void freezeChunk(Chunk chunk) { freezeChunk(chunk, FreezeReason.ENTITY); }
+    public void freezeChunk(Chunk chunk, FreezeReason reason) { addReasons(chunk.getWorld(), chunk.getX(), chunk.getZ(), reason.bit(), null); }
+    /** Clears every reason; the chunk thaws. */
+    public void unfreezeChunk(Chunk chunk) { clearReasons(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ(), -1); }
+    /** Clears one reason; the chunk stays frozen while any other reason holds. */
+    public void unfreezeChunk(Chunk chunk, FreezeReason reason) { clearReasons(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ(), reason.bit()); }
+    /** As {@link #unfreezeChunk(Chunk, FreezeReason)}, but also reaches chunks that are not loaded. */
+    public void unfreezeChunk(World world, int cx, int cz, FreezeReason reason) { clearReasons(world.getUID(), cx, cz, reason.bit()); }
+    private void clearReasons(UUID worldId, int cx, int cz, int mask) {
+        WorldIndex wi = index(worldId);
+        if (wi == null) return;
+        ChunkState st = wi.find(cx, cz);
+        if (st == null) return;
+        int cleared, left;
+        synchronized (st) {
+            if (st.removed) return;
+            cleared = st.reasons & mask;
+            if (cleared == 0) return;
+            left = st.reasons &= ~mask;
+            st.removed = left == 0;
+        }
+        if (left == 0) {
+            if (wi.remove(cx, cz, st)) frozenCount.decrementAndGet();
+            disarm(st);
+        } else {
+            wi.touch(cx, cz);
+        }
+        record(FreezeJournal.OP_UNFREEZE, worldId, cx, cz, (byte) cleared, 0L);
+        bus.publish(ChunkTransition.Kind.UNFREEZE, worldId, cx, cz, cleared, left, 0L);
+    }
+    /** Parks the state of a chunk that is unloading and publishes it as an EVICT. */
+    public void evict(World world, int cx, int cz) {
+        WorldIndex wi = index(world);
+        ChunkState st = wi == null ? null : wi.evict(cx, cz);
+        if (st == null) return;
+        frozenCount.decrementAndGet();
+        int r = st.reasons;
+        bus.publish(ChunkTransition.Kind.EVICT, wi.worldId, cx, cz, 0, r, 0L);
+    }
+    /** Revives the dormant state of a chunk that has just loaded and publishes it as a RESTORE. */
+    public void restore(World world, int cx, int cz) {
+        WorldIndex wi = index(world);
+        if (wi != null && !wi.dormant.isEmpty()) restored(wi, cx, cz, wi.restore(cx, cz));
+    }
+    private void restored(WorldIndex wi, int cx, int cz, ChunkState st) {
+        if (st == null) return;
+        frozenCount.incrementAndGet();
+        int r = st.reasons;
+        bus.publish(ChunkTransition.Kind.RESTORE, wi.worldId, cx, cz, 0, r, 0L);
+    }
+    public void shutdown() {
+        synchronized (worldsLock) { closed = true; }
+        if (replayTask != null) { try { replayTask.cancel(); } catch (Throwable ignored) {} }
+        if (wheelTask != null) { try { wheelTask.cancel(); } catch (Throwable ignored) {} }
+        wheel.clear();
+        if (compactTask != null) { try { compactTask.cancel(); } catch (Throwable ignored) {} }
+        if (journal != null) journal.close(this::writeSnapshot);
+        synchronized (worldsLock) {
+            for (WorldIndex wi : worlds) wi.clear();
+            worlds = new WorldIndex[0];
+        }
+        frozenCount.set(0);
+    }
 }
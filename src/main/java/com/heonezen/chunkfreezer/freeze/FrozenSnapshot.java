@@ -0,0 +1,63 @@
+package com.heonezen.chunkfreezer.freeze;
+
+import com.heonezen.chunkfreezer.api.FrozenView;
+import com.heonezen.chunkfreezer.util.ChunkKey;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Immutable view of one world's frozen chunks. A new instance is built only after the frozen set
+ * of that world changes; {@link #version()} is unique across all worlds, so derived data can be
+ * cached against it.
+ */
+public final class FrozenSnapshot implements FrozenView {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final UUID worldId;
+    private final long version;
+    private final long[] keys;
+    private final int[] reasons;
+    private final long[] table;
+
+    FrozenSnapshot(UUID worldId, long version, long[] keys, int[] reasons) {
+        this.worldId = worldId;
+        this.version = version;
+        this.keys = keys;
+        this.reasons = reasons;
+        int capacity = 4;
+        while (capacity < keys.length * 2) capacity <<= 1;
+        this.table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        int mask = capacity - 1;
+        for (long key : keys) {
+            int i = mix(key) & mask;
+            while (table[i] != EMPTY) i = (i + 1) & mask;
+            table[i] = key;
+        }
+    }
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    @Override public UUID worldId() { return worldId; }
+    @Override public long version() { return version; }
+    @Override public int size() { return keys.length; }
+    @Override public boolean isEmpty() { return keys.length == 0; }
+    @Override public int cx(int i) { return ChunkKey.x(keys[i]); }
+    @Override public int cz(int i) { return ChunkKey.z(keys[i]); }
+    @Override public int reasons(int i) { return reasons[i]; }
+
+    @Override
+    public boolean contains(int cx, int cz) {
+        if (keys.length == 0) return false;
+        long key = ChunkKey.pack(cx, cz);
+        int mask = table.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long k = table[i];
+            if (k == key) return true;
+            if (k == EMPTY) return false;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.heonezen.chunkfreezer.freeze;
+
+import com.heonezen.chunkfreezer.api.*;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.Plugin;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+/**
+ * Collects freeze transitions from any region thread and hands them out once per tick: one
+ * batch to each {@link FreezeSubscriber} and one Bukkit event per kind and world.
+ */
+public final class TransitionBus {
+
+    private static final FreezeSubscriber[] NONE = new FreezeSubscriber[0];
+
+    private final Plugin plugin;
+    private final Queue<ChunkTransition> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<FreezeSubscriber[]> subscribers = new AtomicReference<>(NONE);
+
+    public TransitionBus(Plugin plugin) { this.plugin = plugin; }
+
+    public void subscribe(FreezeSubscriber s) {
+        Objects.requireNonNull(s, "subscriber");
+        FreezeSubscriber[] cur, next;
+        do {
+            cur = subscribers.get();
+            for (FreezeSubscriber x : cur) if (x == s) return;
+            next = Arrays.copyOf(cur, cur.length + 1);
+            next[cur.length] = s;
+        } while (!subscribers.compareAndSet(cur, next));
+    }
+    public void unsubscribe(FreezeSubscriber s) {
+        FreezeSubscriber[] cur, next;
+        do {
+            cur = subscribers.get();
+            int at = -1;
+            for (int i = 0; i < cur.length; i++) if (cur[i] == s) { at = i; break; }
+            if (at < 0) return;
+            next = new FreezeSubscriber[cur.length - 1];
+            System.arraycopy(cur, 0, next, 0, at);
+            System.arraycopy(cur, at + 1, next, at, cur.length - at - 1);
+        } while (!subscribers.compareAndSet(cur, next));
+    }
+    void publish(ChunkTransition.Kind kind, UUID worldId, int cx, int cz, int changed, int reasons, long untilMs) {
+        if (!hasAudience()) return;
+        pending.add(new ChunkTransition(kind, worldId, cx, cz, changed, reasons, untilMs));
+    }
+    private boolean hasAudience() {
+        return subscribers.get().length > 0
+                || ChunkFreezeEvent.getHandlerList().getRegisteredListeners().length > 0
+                || ChunkUnfreezeEvent.getHandlerList().getRegisteredListeners().length > 0
+                || RedstoneMuteEvent.getHandlerList().getRegisteredListeners().length > 0;
+    }
+    void flush() {
+        if (pending.isEmpty()) return;
+        List<ChunkTransition> batch = new ArrayList<>();
+        for (ChunkTransition t; (t = pending.poll()) != null; ) batch.add(t);
+        List<ChunkTransition> view = Collections.unmodifiableList(batch);
+        for (FreezeSubscriber s : subscribers.get()) {
+            try { s.onTransitions(view); }
+            catch (Throwable ex) { plugin.getLogger().log(Level.WARNING, "Freeze subscriber " + s.getClass().getName() + " failed", ex); }
+        }
+        fire(batch, ChunkTransition.Kind.FREEZE, null, ChunkFreezeEvent.getHandlerList());
+        fire(batch, ChunkTransition.Kind.UNFREEZE, null, ChunkUnfreezeEvent.getHandlerList());
+        fire(batch, ChunkTransition.Kind.MUTE, ChunkTransition.Kind.UNMUTE, RedstoneMuteEvent.getHandlerList());
+    }
+    private void fire(List<ChunkTransition> batch, ChunkTransition.Kind kind, ChunkTransition.Kind alt, HandlerList handlers) {
+        if (handlers.getRegisteredListeners().length == 0) return;
+        Map<UUID, List<ChunkTransition>> byWorld = new LinkedHashMap<>();
+        for (ChunkTransition t : batch) {
+            if (t.kind() == kind || t.kind() == alt) byWorld.computeIfAbsent(t.worldId(), _k -> new ArrayList<>()).add(t);
+        }
+        byWorld.forEach((worldId, list) -> {
+            World w = Bukkit.getWorld(worldId);
+            if (w == null) return;
+            List<ChunkTransition> view = Collections.unmodifiableList(list);
+            Event ev = switch (kind) {
+                case FREEZE   -> new ChunkFreezeEvent(w, view);
+                case UNFREEZE -> new ChunkUnfreezeEvent(w, view);
+                default       -> new RedstoneMuteEvent(w, view);
+            };
+            Bukkit.getPluginManager().callEvent(ev);
+        });
+    }
+    /** Drops transitions not yet delivered, so a reload does not hand the old manager's to new subscribers. */
+    public void clear() { pending.clear(); }
+}
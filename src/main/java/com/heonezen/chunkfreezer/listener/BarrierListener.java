@@ -1,18 +1,20 @@
 package com.heonezen.chunkfreezer.listener;
 
+import com.heonezen.chunkfreezer.api.ChunkTransition;
+import com.heonezen.chunkfreezer.api.FreezeSubscriber;
 import com.heonezen.chunkfreezer.config.Settings;
+import com.heonezen.chunkfreezer.freeze.ExitField;
 import com.heonezen.chunkfreezer.freeze.FrozenChunkManager;
+import com.heonezen.chunkfreezer.freeze.FrozenSnapshot;
 import io.papermc.paper.event.entity.EntityMoveEvent;
 import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
-import org.bukkit.Color;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
-import org.bukkit.Particle;
 import org.bukkit.Tag;
 import org.bukkit.World;
 import org.bukkit.block.Block;
@@ -40,21 +42,25 @@ import org.bukkit.plugin.Plugin;
 import org.bukkit.util.Vector;
 
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
-public final class BarrierListener implements Listener {
+public final class BarrierListener implements Listener, FreezeSubscriber {
 
     private final Plugin             plugin;
     private final Settings           settings;
     private final FrozenChunkManager frozen;
+    private final ExitField          exits;
     private final NamespacedKey      ownerKey;
-    private final Map<UUID, WatchState>    watch         = new ConcurrentHashMap<>();
     private final Map<UUID, ScheduledTask> particleTasks = new ConcurrentHashMap<>();
+    private final BorderRenderer           renderer;
+    private final ItemWatcher              items;
+    private final WhileFrozen              frozenOnly;
 
-    private static final Particle.DustOptions BORDER_DUST = new Particle.DustOptions(Color.fromRGB(220, 30, 30), 0.85f);
+    private static final long FROZEN_ONLY_LINGER_TICKS = 600L;
 
     private static final Component FROZEN_ACTIONBAR = Component.text("This chunk is frozen!", NamedTextColor.RED);
 
@@ -79,11 +85,36 @@ public final class BarrierListener implements Listener {
             PlayerTeleportEvent.TeleportCause.COMMAND,
             PlayerTeleportEvent.TeleportCause.UNKNOWN);
 
-    public BarrierListener(Plugin plugin, Settings settings, FrozenChunkManager frozen) {
+    public BarrierListener(Plugin plugin, Settings settings, FrozenChunkManager frozen, ExitField exits) {
         this.plugin   = plugin;
         this.settings = settings;
         this.frozen   = frozen;
+        this.exits    = exits;
         this.ownerKey = new NamespacedKey(plugin, "dropOwner");
+        this.renderer = new BorderRenderer(settings);
+        this.items    = new ItemWatcher(plugin, settings, frozen, ownerKey);
+        this.frozenOnly = new WhileFrozen(plugin, frozen, new FrozenOnlyHandlers(), FROZEN_ONLY_LINGER_TICKS);
+    }
+
+    /**
+     * Registers the frozen-only handlers when the first chunk freezes. They are unregistered once
+     * nothing has been frozen for {@link #FROZEN_ONLY_LINGER_TICKS}, so a chunk thawing and
+     * refreezing does not churn the handler lists. Global region thread.
+     */
+    public void syncFrozenOnlyHandlers() {
+        if (!enabled() || (!settings.watchEntitiesEnabled && !settings.watchLiquids)) return;
+        frozenOnly.sync();
+    }
+    @Override
+    public void onTransitions(List<ChunkTransition> batch) {
+        syncFrozenOnlyHandlers();
+        if (!enabled() || !settings.watchItemsEnabled || !settings.returnPlayerDroppedItem) return;
+        for (ChunkTransition t : batch) {
+            boolean frozeNow = t.kind() == ChunkTransition.Kind.FREEZE && t.reasons() == t.changed();
+            if (!frozeNow && t.kind() != ChunkTransition.Kind.RESTORE) continue;
+            World w = Bukkit.getWorld(t.worldId());
+            if (w != null) items.watchAround(w, t.cx(), t.cz());
+        }
     }
 
     public void startParticleTasks() {
@@ -94,6 +125,9 @@ public final class BarrierListener implements Listener {
     public void shutdown() {
         particleTasks.values().forEach(t -> { try { t.cancel(); } catch (Throwable ignored) {} });
         particleTasks.clear();
+        frozenOnly.shutdown();
+        renderer.clear();
+        items.shutdown();
     }
 
     private boolean enabled()                 { return settings.barrierEnabled; }
@@ -166,17 +200,30 @@ public final class BarrierListener implements Listener {
         }, null, 1L);
         damagePlayer(p);
     }
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
-    public void onPlayerMove(PlayerMoveEvent e) {
-        if (!enabled() || !settings.watchPlayersEnabled) return;
-        Player p = e.getPlayer();
-        if (isExempt(p) || p.getVehicle() != null) return;
-        Location from = e.getFrom(), to = e.getTo();
-        if (to == null || (cx(from) == cx(to) && cz(from) == cz(to))) return;
-        if (!destFrozen(to)) return;
+    /** Whether a chunk crossing by {@code p} has to be checked against the frozen set. */
+    boolean guardsCrossing(Player p) {
+        return enabled() && settings.watchPlayersEnabled && !isExempt(p);
+    }
+    /**
+     * Turns back a player, or the mount they ride, crossing into a frozen chunk. Called by
+     * {@link MoveDispatcher} once the move is known to enter frozen chunk {@code to}.
+     */
+    void blockCrossing(PlayerMoveEvent e, Player p, Location from) {
         e.setCancelled(true); e.setTo(from);
-        sendFrozen(p);
-        damagePlayer(p);
+        Entity mount = p.getVehicle();
+        if (mount == null) {
+            sendFrozen(p);
+            damagePlayer(p);
+            return;
+        }
+        final Location back = from.clone(); final Vector oldVel = mount.getVelocity();
+        mount.teleportAsync(back);
+        mount.getScheduler().execute(plugin, () -> {
+            if (!mount.isValid() || mount.isDead()) return;
+            Vector push = oldVel.multiply(-settings.playerBounceMultiplier);
+            mount.setVelocity(push.lengthSquared() > 1e-6 ? push : new Vector());
+            if (mount instanceof Mob mob) { mob.setTarget(null); mob.setAware(false); }
+        }, null, 1L);
     }
     @SuppressWarnings("deprecation")
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
@@ -196,25 +243,6 @@ public final class BarrierListener implements Listener {
         if (e.getCause() == PlayerTeleportEvent.TeleportCause.CHORUS_FRUIT) sendFrozen(p);
     }
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
-    public void onPlayerMoveWithMount(PlayerMoveEvent e) {
-        if (!enabled() || !settings.watchPlayersEnabled) return;
-        Player p = e.getPlayer();
-        Entity mount = p.getVehicle();
-        if (mount == null || isExempt(p)) return;
-        Location from = e.getFrom(), to = e.getTo();
-        if (to == null || (cx(from) == cx(to) && cz(from) == cz(to))) return;
-        if (!destFrozen(to)) return;
-        e.setCancelled(true); e.setTo(from);
-        final Location back = from.clone(); final Vector oldVel = mount.getVelocity();
-        mount.teleportAsync(back);
-        mount.getScheduler().execute(plugin, () -> {
-            if (!mount.isValid() || mount.isDead()) return;
-            Vector push = oldVel.multiply(-settings.playerBounceMultiplier);
-            mount.setVelocity(push.lengthSquared() > 1e-6 ? push : new Vector());
-            if (mount instanceof Mob mob) { mob.setTarget(null); mob.setAware(false); }
-        }, null, 1L);
-    }
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onPlayerTeleportWithMount(PlayerTeleportEvent e) {
         if (!enabled() || !settings.watchPlayersEnabled) return;
         Player p = e.getPlayer();
@@ -224,17 +252,6 @@ public final class BarrierListener implements Listener {
         e.setCancelled(true); e.setTo(from);
     }
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
-    public void onLivingMove(EntityMoveEvent e) {
-        if (!enabled() || !settings.watchEntitiesEnabled || !frozen.hasAnyFrozenChunks()) return;
-        LivingEntity le = e.getEntity();
-        if (le instanceof Player || settings.isIgnored(le.getType())) return;
-        Location from = e.getFrom(), to = e.getTo();
-        if (to == null || (cx(from) == cx(to) && cz(from) == cz(to))) return;
-        if (!destFrozen(to)) return;
-        e.setCancelled(true); e.setTo(from);
-        if (le instanceof Mob mob) mob.setTarget(null);
-    }
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onEntityTeleport(EntityTeleportEvent e) {
         if (!enabled() || !frozen.hasAnyFrozenChunks() || !settings.watchEntitiesEnabled) return;
         Entity ent = e.getEntity();
@@ -243,20 +260,6 @@ public final class BarrierListener implements Listener {
         if (to != null && destFrozen(to)) e.setCancelled(true);
     }
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
-    public void onVehicleMove(VehicleMoveEvent e) {
-        if (!enabled() || !settings.watchEntitiesEnabled) return;
-        Vehicle v = e.getVehicle();
-        Location to = e.getTo(), from = e.getFrom();
-        if (v == null || to == null || from == null || !destFrozen(to)) return;
-        final Location back = from.clone(); final Vector oldVel = v.getVelocity();
-        v.teleportAsync(back);
-        v.getScheduler().execute(plugin, () -> {
-            if (!v.isValid() || v.isDead()) return;
-            Vector push = oldVel.multiply(-settings.entityBounceMultiplier);
-            v.setVelocity(push.lengthSquared() > 1e-6 ? push : new Vector());
-        }, null, 1L);
-    }
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onEntitySpawnItemUse(PlayerInteractEvent e) {
         if (!enabled() || e.getHand() != EquipmentSlot.HAND) return;
         ItemStack item = e.getItem();
@@ -269,23 +272,11 @@ public final class BarrierListener implements Listener {
         e.setCancelled(true);
         p.getScheduler().execute(plugin, p::updateInventory, null, 1L);
     }
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
-    public void onLiquidFlow(BlockFromToEvent e) {
-        if (!enabled() || !settings.watchLiquids || !frozen.hasAnyFrozenChunks()) return;
-        Block from = e.getBlock(), to = e.getToBlock();
-        Material type = from.getType();
-        if (type != Material.WATER && type != Material.LAVA) return;
-        int fcx = from.getX() >> 4, fcz = from.getZ() >> 4;
-        int tcx = to.getX() >> 4, tcz = to.getZ() >> 4;
-        if (fcx == tcx && fcz == tcz) return;
-        World w = from.getWorld();
-        if (w != null && frozen.isFrozen(w, tcx, tcz)) e.setCancelled(true);
-    }
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onItemSpawn(ItemSpawnEvent e) {
         if (!enabled() || !settings.watchItemsEnabled || !settings.returnPlayerDroppedItem) return;
         if (!frozen.hasAnyFrozenChunks()) return;
-        startWatching(e.getEntity());
+        items.watch(e.getEntity());
     }
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onPlayerDrop(PlayerDropItemEvent e) {
@@ -322,6 +313,7 @@ public final class BarrierListener implements Listener {
         UUID id = e.getPlayer().getUniqueId();
         ScheduledTask t = particleTasks.remove(id);
         if (t != null) try { t.cancel(); } catch (Throwable ignored) {}
+        renderer.forget(id);
     }
     private void startParticleTask(Player p) {
         if (!needsPlayerTask()) return;
@@ -343,109 +335,25 @@ public final class BarrierListener implements Listener {
             spawnBorderParticles(p);
     }
     private void spawnBorderParticles(Player p) {
-        Location pLoc = p.getLocation();
-        World w = pLoc.getWorld();
-        if (w == null) return;
-        int pcx = cx(pLoc), pcz = cz(pLoc);
-        double px = pLoc.getX(), pz = pLoc.getZ(), py = pLoc.getY();
-        double d = settings.particlesOnEntry;
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dz = -1; dz <= 1; dz++) {
-                int fx = pcx + dx, fz = pcz + dz;
-                if (!frozen.isFrozen(w, fx, fz)) continue;
-                double x0 = fx << 4, z0 = fz << 4;
-                if (!frozen.isFrozen(w, fx - 1, fz) && Math.abs(px - x0) <= d && !(pz < z0 && frozen.isFrozen(w, fx, fz - 1)) && !(pz > z0 + 16 && frozen.isFrozen(w, fx, fz + 1)))
-                    drawWallFixedX(p, x0, z0, z0 + 16.0, pz, py, d);
-                if (!frozen.isFrozen(w, fx + 1, fz) && Math.abs(px - (x0 + 16.0)) <= d && !(pz < z0 && frozen.isFrozen(w, fx, fz - 1)) && !(pz > z0 + 16 && frozen.isFrozen(w, fx, fz + 1)))
-                    drawWallFixedX(p, x0 + 16.0, z0, z0 + 16.0, pz, py, d);
-                if (!frozen.isFrozen(w, fx, fz - 1) && Math.abs(pz - z0) <= d && !(px < x0 && frozen.isFrozen(w, fx - 1, fz)) && !(px > x0 + 16 && frozen.isFrozen(w, fx + 1, fz)))
-                    drawWallFixedZ(p, z0, x0, x0 + 16.0, px, py, d);
-                if (!frozen.isFrozen(w, fx, fz + 1) && Math.abs(pz - (z0 + 16.0)) <= d && !(px < x0 && frozen.isFrozen(w, fx - 1, fz)) && !(px > x0 + 16 && frozen.isFrozen(w, fx + 1, fz)))
-                    drawWallFixedZ(p, z0 + 16.0, x0, x0 + 16.0, px, py, d);
-            }
-        }
-    }
-    private void drawWallFixedX(Player p, double bx, double zMin, double zMax, double pz, double py, double d) {
-        double zFrom = Math.max(zMin, pz - d), zTo = Math.min(zMax, pz + d);
-        for (double z = zFrom; z <= zTo; z += 0.5)
-            for (double y = py - 1.0; y <= py + 3.0; y += 0.5)
-                p.spawnParticle(Particle.DUST, bx, y, z, 1, BORDER_DUST);
-    }
-    private void drawWallFixedZ(Player p, double bz, double xMin, double xMax, double px, double py, double d) {
-        double xFrom = Math.max(xMin, px - d), xTo = Math.min(xMax, px + d);
-        for (double x = xFrom; x <= xTo; x += 0.5)
-            for (double y = py - 1.0; y <= py + 3.0; y += 0.5)
-                p.spawnParticle(Particle.DUST, x, y, bz, 1, BORDER_DUST);
-    }
-    private void startWatching(Entity entity) {
-        if (!(entity instanceof Item) || !entity.isValid() || entity.isDead()) return;
-        UUID id = entity.getUniqueId();
-        if (watch.containsKey(id)) return;
-        WatchState st = new WatchState();
-        st.lastSafe     = entity.getLocation().clone();
-        st.lastVelocity = entity.getVelocity().clone();
-        watch.put(id, st);
-        ScheduledTask task = entity.getScheduler().runAtFixedRate(plugin, scheduled -> tickWatch((Item) entity, scheduled), () -> watch.remove(id), 3L, 3L);
-        if (task == null) watch.remove(id); else st.task = task;
-    }
-    private void tickWatch(Item item, ScheduledTask task) {
-        if (!item.isValid() || item.isDead()) {
-            task.cancel(); watch.remove(item.getUniqueId()); return;
-        }
-        WatchState st = watch.get(item.getUniqueId());
-        if (st == null) { task.cancel(); return; }
-        Location now = item.getLocation();
-        World w = now.getWorld();
-        if (w == null) return;
-        if (!frozen.isFrozen(w, cx(now), cz(now))) {
-            st.lastSafe = now.clone(); st.lastVelocity = item.getVelocity().clone(); return;
-        }
-        if (!settings.returnPlayerDroppedItem) { task.cancel(); watch.remove(item.getUniqueId()); return; }
-        if (item.getPickupDelay() == Integer.MAX_VALUE) { task.cancel(); watch.remove(item.getUniqueId()); return; }
-        item.setPickupDelay(Integer.MAX_VALUE);
-        ItemStack stack = item.getItemStack().clone();
-        UUID id = item.getUniqueId();
-        String ownerStr = item.getPersistentDataContainer().get(ownerKey, PersistentDataType.STRING);
-        item.remove(); task.cancel(); watch.remove(id);
-        if (ownerStr != null) {
-            try {
-                Player owner = Bukkit.getPlayer(UUID.fromString(ownerStr));
-                if (owner != null && owner.isOnline()) {
-                    owner.getScheduler().execute(plugin, () -> {
-                        owner.getInventory().addItem(stack).values().forEach(rem -> owner.getWorld().dropItemNaturally(owner.getLocation(), rem));
-                        owner.updateInventory();
-                    }, null, 1L);
-                    return;
-                }
-            } catch (IllegalArgumentException ignored) {}
-        }
-        Location exit = st.lastSafe;
-        if (exit != null && exit.getWorld() != null && !frozen.isFrozen(exit.getWorld(), cx(exit), cz(exit))) {
-            final World ew = exit.getWorld();
-            final Location exitFinal = exit.clone();
-            Bukkit.getRegionScheduler().execute(plugin, ew, cx(exit), cz(exit), () -> ew.dropItemNaturally(exitFinal, stack));
-        }
+        World w = p.getWorld();
+        FrozenSnapshot snap = frozen.snapshot(w);
+        if (!snap.isEmpty()) renderer.render(p, snap);
     }
+    /** Just inside the nearest unfrozen chunk, on the side facing {@code loc}; null if there is none. */
     private Location findNearestUnfrozen(Location loc) {
         World w = loc.getWorld();
-        if (w == null) return null;
-        int[] dxs = {0, 0, 1, -1};
-        int[] dzs = {1, -1, 0, 0};
-        for (int i = 0; i < 4; i++) {
-            int ncx = cx(loc) + dxs[i], ncz = cz(loc) + dzs[i];
-            if (!frozen.isFrozen(w, ncx, ncz)) {
-                double bx, bz;
-                if (dxs[i] != 0) {
-                    bx = (ncx << 4) + (dxs[i] == 1 ? 1.5 : 14.5);
-                    bz = Math.max((ncz << 4) + 0.5, Math.min((ncz << 4) + 15.5, loc.getZ()));
-                } else {
-                    bz = (ncz << 4) + (dzs[i] == 1 ? 1.5 : 14.5);
-                    bx = Math.max((ncx << 4) + 0.5, Math.min((ncx << 4) + 15.5, loc.getX()));
-                }
-                return new Location(w, bx, loc.getY(), bz);
-            }
+        ExitField.Exit exit = exits.exit(w, cx(loc), cz(loc), loc.getX(), loc.getZ());
+        if (exit == null) return null;
+        int minX = exit.tx() << 4, minZ = exit.tz() << 4;
+        double bx, bz;
+        if (exit.tx() != exit.fx()) {
+            bx = minX + (exit.tx() > exit.fx() ? 1.5 : 14.5);
+            bz = Math.max(minZ + 0.5, Math.min(minZ + 15.5, loc.getZ()));
+        } else {
+            bz = minZ + (exit.tz() > exit.fz() ? 1.5 : 14.5);
+            bx = Math.max(minX + 0.5, Math.min(minX + 15.5, loc.getX()));
         }
-        return null;
+        return new Location(w, bx, loc.getY(), bz);
     }
     private boolean isEntitySpawningItem(ItemStack stack) {
         Material m = stack.getType();
@@ -455,9 +363,49 @@ public final class BarrierListener implements Listener {
         if (PLACE_ENTITY_ITEMS.contains(m) || ENTITY_BUCKETS.contains(m)) return true;
         return stack.getItemMeta() instanceof SpawnEggMeta;
     }
-    private static final class WatchState {
-        volatile Location      lastSafe;
-        volatile Vector        lastVelocity;
-        volatile ScheduledTask task;
+
+    /**
+     * Handlers for events Paper fires on nearly every tick for every entity, vehicle or liquid.
+     * They are registered only while frozen chunks exist, so the server pays nothing for them
+     * (Paper skips firing EntityMoveEvent entirely) when nothing is frozen.
+     */
+    private final class FrozenOnlyHandlers implements Listener {
+        @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+        public void onLivingMove(EntityMoveEvent e) {
+            if (!enabled() || !settings.watchEntitiesEnabled || !frozen.hasAnyFrozenChunks()) return;
+            LivingEntity le = e.getEntity();
+            if (le instanceof Player || settings.isIgnored(le.getType())) return;
+            Location from = e.getFrom(), to = e.getTo();
+            if (to == null || (cx(from) == cx(to) && cz(from) == cz(to))) return;
+            if (!destFrozen(to)) return;
+            e.setCancelled(true); e.setTo(from);
+            if (le instanceof Mob mob) mob.setTarget(null);
+        }
+        @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+        public void onVehicleMove(VehicleMoveEvent e) {
+            if (!enabled() || !settings.watchEntitiesEnabled) return;
+            Vehicle v = e.getVehicle();
+            Location to = e.getTo(), from = e.getFrom();
+            if (v == null || to == null || from == null || !destFrozen(to)) return;
+            final Location back = from.clone(); final Vector oldVel = v.getVelocity();
+            v.teleportAsync(back);
+            v.getScheduler().execute(plugin, () -> {
+                if (!v.isValid() || v.isDead()) return;
+                Vector push = oldVel.multiply(-settings.entityBounceMultiplier);
+                v.setVelocity(push.lengthSquared() > 1e-6 ? push : new Vector());
+            }, null, 1L);
+        }
+        @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+        public void onLiquidFlow(BlockFromToEvent e) {
+            if (!enabled() || !settings.watchLiquids || !frozen.hasAnyFrozenChunks()) return;
+            Block from = e.getBlock(), to = e.getToBlock();
+            Material type = from.getType();
+            if (type != Material.WATER && type != Material.LAVA) return;
+            int fcx = from.getX() >> 4, fcz = from.getZ() >> 4;
+            int tcx = to.getX() >> 4, tcz = to.getZ() >> 4;
+            if (fcx == tcx && fcz == tcz) return;
+            World w = from.getWorld();
+            if (w != null && frozen.isFrozen(w, tcx, tcz)) e.setCancelled(true);
+        }
     }
 }
@@ -0,0 +1,163 @@
+package com.heonezen.chunkfreezer.listener;
+
+import com.heonezen.chunkfreezer.config.Settings;
+import com.heonezen.chunkfreezer.freeze.FrozenSnapshot;
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Draws the frozen-chunk walls around a player. The exposed walls of the 3x3 chunks around the
+ * player are cached until they cross a chunk or the frozen set changes; each frame only clips
+ * them to the player's position. Points thin out with distance, the nearest walls are filled
+ * first, and a frame never exceeds the per-player budget or what is left of the server-wide
+ * budget for the current tick. Points are collected first and sent in one pass, into buffers
+ * that each player's view keeps and hands on when it is rebuilt.
+ */
+final class BorderRenderer {
+
+    private static final Particle.DustOptions BORDER_DUST = new Particle.DustOptions(Color.fromRGB(220, 30, 30), 0.85f);
+    private static final long   TICK_NANOS = 50_000_000L;
+    private static final double NEAR = 4.0;
+
+    /** A chunk edge facing an unfrozen chunk; {@code at} is the fixed x (or z) coordinate. */
+    private record Wall(boolean fixedX, double at, double min, double max, boolean frozenBefore, boolean frozenAfter) {}
+
+    private static final class View {
+        final UUID worldId;
+        final int cx, cz;
+        final long version;
+        final Wall[] walls;
+        double[] points = new double[0];
+        int[] order = new int[0];
+        double[] dist = new double[0];
+
+        View(UUID worldId, int cx, int cz, long version, Wall[] walls) {
+            this.worldId = worldId; this.cx = cx; this.cz = cz; this.version = version; this.walls = walls;
+        }
+        /** Takes over the buffers of the view this one replaces; {@link #collect} grows them. */
+        View adopt(View prev) {
+            if (prev != null) { points = prev.points; order = prev.order; dist = prev.dist; }
+            return this;
+        }
+    }
+
+    private final Settings settings;
+    private final Map<UUID, View> views = new ConcurrentHashMap<>();
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger windowUsed = new AtomicInteger();
+
+    BorderRenderer(Settings settings) { this.settings = settings; }
+
+    /** Renders one frame for {@code p}. Player thread only. */
+    void render(Player p, FrozenSnapshot snap) {
+        Location loc = p.getLocation();
+        int pcx = loc.getBlockX() >> 4, pcz = loc.getBlockZ() >> 4;
+        View v = views.get(p.getUniqueId());
+        if (v == null || v.version != snap.version() || v.cx != pcx || v.cz != pcz || !v.worldId.equals(snap.worldId()))
+            views.put(p.getUniqueId(), v = build(snap, pcx, pcz).adopt(v));
+        if (v.walls.length == 0) return;
+        int n = collect(v, loc.getX(), loc.getY(), loc.getZ(), settings.particlesPerPlayer);
+        n = claim(n);
+        double[] pts = v.points;
+        for (int i = 0; i < n * 3; i += 3) p.spawnParticle(Particle.DUST, pts[i], pts[i + 1], pts[i + 2], 1, BORDER_DUST);
+    }
+    void forget(UUID playerId) { views.remove(playerId); }
+    void clear() { views.clear(); }
+
+    private static View build(FrozenSnapshot snap, int pcx, int pcz) {
+        Wall[] walls = new Wall[36];
+        int n = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                int fx = pcx + dx, fz = pcz + dz;
+                if (!snap.contains(fx, fz)) continue;
+                double x0 = fx << 4, z0 = fz << 4;
+                boolean north = snap.contains(fx, fz - 1), south = snap.contains(fx, fz + 1);
+                boolean west = snap.contains(fx - 1, fz), east = snap.contains(fx + 1, fz);
+                if (!west)  walls[n++] = new Wall(true,  x0,        z0, z0 + 16.0, north, south);
+                if (!east)  walls[n++] = new Wall(true,  x0 + 16.0, z0, z0 + 16.0, north, south);
+                if (!north) walls[n++] = new Wall(false, z0,        x0, x0 + 16.0, west, east);
+                if (!south) walls[n++] = new Wall(false, z0 + 16.0, x0, x0 + 16.0, west, east);
+            }
+        }
+        return new View(snap.worldId(), pcx, pcz, snap.version(), Arrays.copyOf(walls, n));
+    }
+    /** Fills {@code v.points} nearest wall first, up to {@code limit} points; returns the count. */
+    private int collect(View v, double px, double py, double pz, int limit) {
+        if (v.points.length < limit * 3) v.points = new double[limit * 3];
+        double d = settings.particlesOnEntry;
+        Wall[] walls = v.walls;
+        if (v.order.length < walls.length) { v.order = new int[walls.length]; v.dist = new double[walls.length]; }
+        int[] order = v.order;
+        double[] dist = v.dist;
+        int visible = 0;
+        for (int i = 0; i < walls.length; i++) {
+            Wall w = walls[i];
+            double across = w.fixedX ? px : pz, along = w.fixedX ? pz : px;
+            double gap = Math.abs(across - w.at);
+            if (gap > d) continue;
+            if ((w.frozenBefore && along < w.min) || (w.frozenAfter && along > w.max)) continue;
+            int at = visible++;
+            while (at > 0 && dist[at - 1] > gap) { dist[at] = dist[at - 1]; order[at] = order[at - 1]; at--; }
+            dist[at] = gap; order[at] = i;
+        }
+        int n = 0;
+        for (int i = 0; i < visible && n < limit; i++) n = wall(v.points, n, limit, walls[order[i]], dist[i], px, py, pz, d);
+        return n;
+    }
+    /** Walks outward from the point nearest the player, alternating sides, thinning with distance. */
+    private static int wall(double[] pts, int n, int limit, Wall w, double gap, double px, double py, double pz, double d) {
+        double along = w.fixedX ? pz : px;
+        double from = Math.max(w.min, along - d), to = Math.min(w.max, along + d);
+        if (from > to) return n;
+        double t0 = Math.max(from, Math.min(to, along));
+        n = column(pts, n, limit, w, t0, py, spacing(gap));
+        double up = t0, down = t0;
+        boolean upOpen = true, downOpen = true;
+        while (n < limit && (upOpen || downOpen)) {
+            boolean goUp = upOpen && (!downOpen || up - t0 <= t0 - down);
+            if (goUp) {
+                up += spacing(Math.hypot(gap, up - t0));
+                if (up > to) { upOpen = false; continue; }
+                n = column(pts, n, limit, w, up, py, spacing(Math.hypot(gap, up - t0)));
+            } else {
+                down -= spacing(Math.hypot(gap, t0 - down));
+                if (down < from) { downOpen = false; continue; }
+                n = column(pts, n, limit, w, down, py, spacing(Math.hypot(gap, t0 - down)));
+            }
+        }
+        return n;
+    }
+    private static int column(double[] pts, int n, int limit, Wall w, double t, double py, double step) {
+        for (double y = py - 1.0; y <= py + 3.0 && n < limit; y += step) {
+            int i = n++ * 3;
+            pts[i]     = w.fixedX ? w.at : t;
+            pts[i + 1] = y;
+            pts[i + 2] = w.fixedX ? t : w.at;
+        }
+        return n;
+    }
+    private static double spacing(double dist) {
+        return dist <= NEAR ? 0.5 : dist <= NEAR * 2 ? 1.0 : 2.0;
+    }
+    /** Takes up to {@code want} points from the server-wide budget of the current tick. */
+    private int claim(int want) {
+        if (want <= 0) return 0;
+        long now = System.nanoTime(), start = windowStart.get();
+        if (now - start >= TICK_NANOS && windowStart.compareAndSet(start, now)) windowUsed.set(0);
+        int over = windowUsed.addAndGet(want) - settings.particlesPerTick;
+        if (over <= 0) return want;
+        int got = Math.max(0, want - over);
+        windowUsed.addAndGet(got - want);
+        return got;
+    }
+}
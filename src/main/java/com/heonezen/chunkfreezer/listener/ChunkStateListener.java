@@ -0,0 +1,27 @@
+package com.heonezen.chunkfreezer.listener;
+
+import com.heonezen.chunkfreezer.freeze.FrozenChunkManager;
+import org.bukkit.Chunk;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+public final class ChunkStateListener implements Listener {
+
+    private final FrozenChunkManager manager;
+
+    public ChunkStateListener(FrozenChunkManager manager) { this.manager = manager; }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onChunkLoad(ChunkLoadEvent e) {
+        Chunk c = e.getChunk();
+        manager.restore(e.getWorld(), c.getX(), c.getZ());
+    }
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        Chunk c = e.getChunk();
+        manager.evict(e.getWorld(), c.getX(), c.getZ());
+    }
+}
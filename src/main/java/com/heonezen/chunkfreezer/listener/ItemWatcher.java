@@ -0,0 +1,231 @@
+package com.heonezen.chunkfreezer.listener;
+
+import com.heonezen.chunkfreezer.config.Settings;
+import com.heonezen.chunkfreezer.freeze.FrozenChunkManager;
+import com.heonezen.chunkfreezer.freeze.FrozenSnapshot;
+import com.heonezen.chunkfreezer.util.ChunkKey;
+import com.heonezen.chunkfreezer.util.LongIntMap;
+import com.heonezen.chunkfreezer.util.LongObjectMap;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps dropped items out of frozen chunks. Only items that appear within
+ * {@link Settings#itemWatchRadius} chunks of a frozen chunk are watched. That is one lookup in a
+ * halo set rebuilt whenever a world's frozen snapshot changes. Items already lying there when a
+ * chunk freezes are picked up by {@link #watchAround}. A watched item stays watched until it is
+ * gone or its world has no frozen chunks left, so it cannot drift out of the halo and back in
+ * unseen. Watched items are grouped by 16x16-chunk section and swept together by one region task
+ * per section. Their last safe position is kept in a primitive array, and positions are read
+ * into a reused Location.
+ */
+final class ItemWatcher {
+
+    private static final int  SECTION_SHIFT = 4;
+    private static final long SWEEP_TICKS = 3L;
+
+    private record Halo(long version, LongIntMap keys) {}
+
+    private final class Batch {
+        final World world;
+        final long sid;
+        final Location scratch;
+        Item[] items = new Item[8];
+        double[] safe = new double[24];
+        int size;
+        ScheduledTask task;
+
+        Batch(World world, long sid) { this.world = world; this.sid = sid; this.scratch = new Location(world, 0, 0, 0); }
+        void add(Item item, double x, double y, double z) {
+            if (size == items.length) { items = Arrays.copyOf(items, size * 2); safe = Arrays.copyOf(safe, size * 6); }
+            items[size] = item;
+            safe[size * 3] = x; safe[size * 3 + 1] = y; safe[size * 3 + 2] = z;
+            size++;
+        }
+        void removeAt(int i) {
+            int last = --size;
+            items[i] = items[last]; items[last] = null;
+            System.arraycopy(safe, last * 3, safe, i * 3, 3);
+        }
+    }
+
+    private final Plugin plugin;
+    private final Settings settings;
+    private final FrozenChunkManager frozen;
+    private final NamespacedKey ownerKey;
+    private final Map<UUID, Halo> halos = new ConcurrentHashMap<>();
+    private final Map<UUID, LongObjectMap<Batch>> batches = new ConcurrentHashMap<>();
+    private final Set<UUID> watched = ConcurrentHashMap.newKeySet();
+
+    ItemWatcher(Plugin plugin, Settings settings, FrozenChunkManager frozen, NamespacedKey ownerKey) {
+        this.plugin = plugin;
+        this.settings = settings;
+        this.frozen = frozen;
+        this.ownerKey = ownerKey;
+    }
+
+    /** Whether {@code (cx, cz)} lies within the watch radius of a frozen chunk. */
+    boolean nearFrozen(World world, int cx, int cz) {
+        FrozenSnapshot snap = frozen.snapshot(world);
+        if (snap.isEmpty()) return false;
+        Halo h = halos.get(world.getUID());
+        if (h == null || h.version() != snap.version()) h = rebuild(world.getUID(), snap);
+        return h.keys().get(ChunkKey.pack(cx, cz)) > 0;
+    }
+    private Halo rebuild(UUID worldId, FrozenSnapshot snap) {
+        synchronized (halos) {
+            Halo h = halos.get(worldId);
+            if (h != null && h.version() == snap.version()) return h;
+            int r = settings.itemWatchRadius;
+            LongIntMap keys = new LongIntMap();
+            for (int i = 0; i < snap.size(); i++) {
+                int cx = snap.cx(i), cz = snap.cz(i);
+                for (int dx = -r; dx <= r; dx++)
+                    for (int dz = -r; dz <= r; dz++) keys.addTo(ChunkKey.pack(cx + dx, cz + dz), 1);
+            }
+            h = new Halo(snap.version(), keys);
+            halos.put(worldId, h);
+            return h;
+        }
+    }
+
+    /** Starts watching {@code item} if it is near a frozen chunk. Item's region thread. */
+    void watch(Item item) {
+        if (!item.isValid() || item.isDead()) return;
+        Location loc = item.getLocation();
+        if (!nearFrozen(loc.getWorld(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4)) return;
+        if (!watched.add(item.getUniqueId())) return;
+        enqueue(item, loc.getWorld(), loc.getX(), loc.getY(), loc.getZ());
+    }
+    /**
+     * Watches the items already lying within the watch radius of {@code (cx, cz)}, which has just
+     * frozen. One region task per section touched. Any thread.
+     */
+    void watchAround(World world, int cx, int cz) {
+        int r = settings.itemWatchRadius;
+        for (int sx = (cx - r) >> SECTION_SHIFT; sx <= (cx + r) >> SECTION_SHIFT; sx++) {
+            for (int sz = (cz - r) >> SECTION_SHIFT; sz <= (cz + r) >> SECTION_SHIFT; sz++) {
+                int x0 = Math.max(cx - r, sx << SECTION_SHIFT), x1 = Math.min(cx + r, ((sx + 1) << SECTION_SHIFT) - 1);
+                int z0 = Math.max(cz - r, sz << SECTION_SHIFT), z1 = Math.min(cz + r, ((sz + 1) << SECTION_SHIFT) - 1);
+                Bukkit.getRegionScheduler().execute(plugin, world, x0, z0, () -> {
+                    for (int x = x0; x <= x1; x++)
+                        for (int z = z0; z <= z1; z++) {
+                            if (!world.isChunkLoaded(x, z)) continue;
+                            for (Entity e : world.getChunkAt(x, z).getEntities()) if (e instanceof Item item) watch(item);
+                        }
+                });
+            }
+        }
+    }
+    private void enqueue(Item item, World world, double x, double y, double z) {
+        Location loc = item.getLocation();
+        int cx = loc.getBlockX() >> 4, cz = loc.getBlockZ() >> 4;
+        LongObjectMap<Batch> map = batches.computeIfAbsent(world.getUID(), _k -> new LongObjectMap<>());
+        long sid = ChunkKey.pack(cx >> SECTION_SHIFT, cz >> SECTION_SHIFT);
+        synchronized (map) {
+            Batch b = map.get(sid);
+            if (b == null) map.put(sid, b = new Batch(world, sid));
+            synchronized (b) {
+                b.add(item, x, y, z);
+                if (b.task == null) {
+                    Batch fb = b;
+                    b.task = Bukkit.getRegionScheduler().runAtFixedRate(plugin, world, cx, cz, _t -> sweep(fb), SWEEP_TICKS, SWEEP_TICKS);
+                }
+            }
+        }
+    }
+    private void sweep(Batch b) {
+        synchronized (b) {
+            Location loc = b.scratch;
+            boolean anyFrozen = !frozen.snapshot(b.world).isEmpty();
+            for (int i = b.size - 1; i >= 0; i--) {
+                Item item = b.items[i];
+                if (!anyFrozen || !item.isValid() || item.isDead()) { watched.remove(item.getUniqueId()); b.removeAt(i); continue; }
+                if (!Bukkit.isOwnedByCurrentRegion(item)) {
+                    double x = b.safe[i * 3], y = b.safe[i * 3 + 1], z = b.safe[i * 3 + 2];
+                    b.removeAt(i);
+                    item.getScheduler().execute(plugin, () -> enqueue(item, b.world, x, y, z), () -> watched.remove(item.getUniqueId()), 1L);
+                    continue;
+                }
+                item.getLocation(loc);
+                int cx = loc.getBlockX() >> 4, cz = loc.getBlockZ() >> 4;
+                if (!frozen.isFrozen(b.world, cx, cz)) {
+                    b.safe[i * 3] = loc.getX(); b.safe[i * 3 + 1] = loc.getY(); b.safe[i * 3 + 2] = loc.getZ();
+                    continue;
+                }
+                double x = b.safe[i * 3], y = b.safe[i * 3 + 1], z = b.safe[i * 3 + 2];
+                watched.remove(item.getUniqueId());
+                b.removeAt(i);
+                if (settings.returnPlayerDroppedItem && item.getPickupDelay() != Integer.MAX_VALUE) evict(item, b.world, x, y, z);
+            }
+            if (b.size > 0) return;
+        }
+        retire(b);
+    }
+    private void retire(Batch b) {
+        LongObjectMap<Batch> map = batches.get(b.world.getUID());
+        if (map == null) return;
+        synchronized (map) {
+            synchronized (b) {
+                if (b.size > 0) return;
+                if (b.task != null) { try { b.task.cancel(); } catch (Throwable ignored) {} }
+                b.task = null;
+                if (map.get(b.sid) == b) map.remove(b.sid);
+            }
+        }
+    }
+    /** Hands the item back to its dropper, or drops it again at its last position outside. */
+    private void evict(Item item, World world, double x, double y, double z) {
+        item.setPickupDelay(Integer.MAX_VALUE);
+        ItemStack stack = item.getItemStack().clone();
+        String ownerStr = item.getPersistentDataContainer().get(ownerKey, PersistentDataType.STRING);
+        item.remove();
+        if (ownerStr != null) {
+            try {
+                Player owner = Bukkit.getPlayer(UUID.fromString(ownerStr));
+                if (owner != null && owner.isOnline()) {
+                    owner.getScheduler().execute(plugin, () -> {
+                        owner.getInventory().addItem(stack).values().forEach(rem -> owner.getWorld().dropItemNaturally(owner.getLocation(), rem));
+                        owner.updateInventory();
+                    }, null, 1L);
+                    return;
+                }
+            } catch (IllegalArgumentException ignored) {}
+        }
+        int ecx = (int) Math.floor(x) >> 4, ecz = (int) Math.floor(z) >> 4;
+        if (frozen.isFrozen(world, ecx, ecz)) return;
+        Location exit = new Location(world, x, y, z);
+        Bukkit.getRegionScheduler().execute(plugin, world, ecx, ecz, () -> world.dropItemNaturally(exit, stack));
+    }
+    void shutdown() {
+        for (LongObjectMap<Batch> map : batches.values()) {
+            synchronized (map) {
+                map.forEach((sid, b) -> {
+                    synchronized (b) {
+                        if (b.task != null) { try { b.task.cancel(); } catch (Throwable ignored) {} }
+                        b.task = null;
+                    }
+                });
+                map.clear();
+            }
+        }
+        batches.clear();
+        watched.clear();
+        halos.clear();
+    }
+}
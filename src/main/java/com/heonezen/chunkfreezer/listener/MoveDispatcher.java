@@ -0,0 +1,43 @@
+package com.heonezen.chunkfreezer.listener;
+
+import com.heonezen.chunkfreezer.freeze.FrozenChunkManager;
+import com.heonezen.chunkfreezer.monitor.ChunkMonitor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+
+/**
+ * The only PlayerMoveEvent handler. Moves within one chunk, which is nearly all of them, return
+ * after the chunk comparison. A real crossing looks up the frozen state of the target chunk once,
+ * lets the barrier turn the player (or their mount) back, and otherwise refreshes monitor coverage.
+ */
+public final class MoveDispatcher implements Listener {
+
+    private final FrozenChunkManager manager;
+    private final BarrierListener barrier;
+    private final ChunkMonitor monitor;
+
+    /** {@code monitor} may be null when entity protection is off. */
+    public MoveDispatcher(FrozenChunkManager manager, BarrierListener barrier, ChunkMonitor monitor) {
+        this.manager = manager; this.barrier = barrier; this.monitor = monitor;
+    }
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent e) {
+        Location from = e.getFrom(), to = e.getTo();
+        if (to == null) return;
+        int tcx = to.getBlockX() >> 4, tcz = to.getBlockZ() >> 4;
+        if ((from.getBlockX() >> 4) == tcx && (from.getBlockZ() >> 4) == tcz) return;
+        World w = to.getWorld();
+        if (w == null || w != from.getWorld()) return;
+        Player p = e.getPlayer();
+        if (barrier.guardsCrossing(p) && manager.isFrozen(w, tcx, tcz)) {
+            barrier.blockCrossing(e, p, from);
+            return;
+        }
+        if (monitor != null) monitor.onChunkCrossing(p);
+    }
+}
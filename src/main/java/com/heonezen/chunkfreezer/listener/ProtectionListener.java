@@ -1,6 +1,7 @@
 package com.heonezen.chunkfreezer.listener;
 
 import com.heonezen.chunkfreezer.config.Settings;
+import com.heonezen.chunkfreezer.freeze.ExitField;
 import com.heonezen.chunkfreezer.freeze.FrozenChunkManager;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -23,19 +24,15 @@ import java.util.*;
 
 public final class ProtectionListener implements Listener {
 
-    private static final int   BFS_LIMIT = 512;
-    private static final int[] DIR_X = {1, -1, 0, 0};
-    private static final int[] DIR_Z = {0, 0, 1, -1};
-
     private final Plugin plugin;
     private final Settings settings;
     private final FrozenChunkManager manager;
+    private final ExitField exits;
 
-    public ProtectionListener(Plugin plugin, Settings settings, FrozenChunkManager manager) { this.plugin = plugin; this.settings = settings; this.manager = manager; }
+    public ProtectionListener(Plugin plugin, Settings settings, FrozenChunkManager manager, ExitField exits) { this.plugin = plugin; this.settings = settings; this.manager = manager; this.exits = exits; }
     private boolean frozen(Location l) { return l != null && l.getWorld() != null && manager.isFrozen(l.getWorld(), l.getBlockX() >> 4, l.getBlockZ() >> 4); }
     private boolean frozen(Block b) { return b != null && frozen(b.getLocation()); }
     private boolean itemRedirect() { return settings.barrierEnabled && settings.watchItemsEnabled && settings.returnPlayerDroppedItem; }
-    private static long packChunk(int x, int z) { return ((long) x << 32) ^ (z & 0xFFFFFFFFL); }
     private static double clamp(double v, double lo, double hi) { return v < lo ? lo : (v > hi ? hi : v); }
     private static DropPoint borderPt(Location o, int fx, int fz, int tx, int tz) {
         int minX = tx << 4, minZ = tz << 4;
@@ -58,31 +55,6 @@ public final class ProtectionListener implements Listener {
         }
         return y + 0.05;
     }
-    private Exit findExit(World w, int sx, int sz, Location origin) {
-        if (w == null || !manager.isFrozen(w, sx, sz)) return null;
-        ArrayDeque<Node> q = new ArrayDeque<>();
-        Set<Long> visited = new HashSet<>();
-        q.add(new Node(sx, sz, 0)); visited.add(packChunk(sx, sz));
-        Exit best = null; int bestDist = Integer.MAX_VALUE; double bestSq = Double.MAX_VALUE;
-        int iters = 0;
-        while (!q.isEmpty() && iters++ < BFS_LIMIT) {
-            Node cur = q.poll();
-            if (cur.dist() > bestDist) break;
-            for (int i = 0; i < 4; i++) {
-                int nx = cur.x() + DIR_X[i], nz = cur.z() + DIR_Z[i];
-                if (!manager.isFrozen(w, nx, nz)) {
-                    int d = cur.dist() + 1;
-                    if (d > bestDist) continue;
-                    DropPoint p = borderPt(origin, cur.x(), cur.z(), nx, nz);
-                    double sq = Math.pow(p.x() - origin.getX(), 2) + Math.pow(p.z() - origin.getZ(), 2);
-                    if (d < bestDist || sq < bestSq) { bestDist = d; bestSq = sq; best = new Exit(cur.x(), cur.z(), nx, nz); }
-                } else if (cur.dist() + 1 < bestDist && visited.add(packChunk(nx, nz))) {
-                    q.add(new Node(nx, nz, cur.dist() + 1));
-                }
-            }
-        }
-        return best;
-    }
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onInteractEntity(PlayerInteractEntityEvent e) {
         Entity c = e.getRightClicked();
@@ -95,7 +67,7 @@ public final class ProtectionListener implements Listener {
         Location loc = e.getEntity().getLocation();
         if (!frozen(loc)) return;
         World w = loc.getWorld();
-        Exit exit = findExit(w, loc.getBlockX() >> 4, loc.getBlockZ() >> 4, loc);
+        ExitField.Exit exit = exits.exit(w, loc.getBlockX() >> 4, loc.getBlockZ() >> 4, loc.getX(), loc.getZ());
         if (exit == null) return;
         DropPoint pt = borderPt(loc, exit.fx(), exit.fz(), exit.tx(), exit.tz());
         List<ItemStack> drops = new ArrayList<>(e.getDrops());
@@ -120,7 +92,7 @@ public final class ProtectionListener implements Listener {
     public void onItemSpawn(ItemSpawnEvent e) {
         if (!itemRedirect() || !frozen(e.getLocation())) return;
         Location loc = e.getLocation(); World w = loc.getWorld(); if (w == null) return;
-        Exit exit = findExit(w, loc.getBlockX() >> 4, loc.getBlockZ() >> 4, loc);
+        ExitField.Exit exit = exits.exit(w, loc.getBlockX() >> 4, loc.getBlockZ() >> 4, loc.getX(), loc.getZ());
         if (exit == null) return;
         ItemStack stack = e.getEntity().getItemStack();
         if (stack == null || stack.getType().isAir()) return;
@@ -174,7 +146,5 @@ public final class ProtectionListener implements Listener {
     private static boolean isTrigger(Material m) { return m == Material.LEVER || Tag.BUTTONS.isTagged(m) || Tag.PRESSURE_PLATES.isTagged(m); }
     private static boolean isSignal(Material m) { return m == Material.REDSTONE_WIRE || m == Material.REPEATER || m == Material.COMPARATOR || m == Material.REDSTONE_TORCH || m == Material.REDSTONE_WALL_TORCH; }
     private static boolean isBorder(int x, int z) { int rx = x & 15, rz = z & 15; return rx == 0 || rx == 15 || rz == 0 || rz == 15; }
-    private record Node(int x, int z, int dist) {}
-    private record Exit(int fx, int fz, int tx, int tz) {}
     private record DropPoint(double x, double z) {}
 }
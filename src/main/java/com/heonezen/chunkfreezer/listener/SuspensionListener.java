@@ -0,0 +1,121 @@
+package com.heonezen.chunkfreezer.listener;
+
+import com.heonezen.chunkfreezer.api.ChunkTransition;
+import com.heonezen.chunkfreezer.api.FreezeSubscriber;
+import com.heonezen.chunkfreezer.freeze.EntitySuspender;
+import com.heonezen.chunkfreezer.freeze.FrozenChunkManager;
+import com.heonezen.chunkfreezer.freeze.FrozenSnapshot;
+import io.papermc.paper.event.entity.EntityMoveEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.entity.EntityTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.List;
+
+public final class SuspensionListener implements Listener, FreezeSubscriber {
+
+    private static final long MOVES_LINGER_TICKS = 600L;
+
+    private final Plugin plugin;
+    private final FrozenChunkManager manager;
+    private final EntitySuspender suspender;
+    private final WhileFrozen moves;
+    private volatile boolean active = true;
+
+    public SuspensionListener(Plugin plugin, FrozenChunkManager manager, EntitySuspender suspender) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.suspender = suspender;
+        this.moves = new WhileFrozen(plugin, manager, new MoveHandlers(), MOVES_LINGER_TICKS);
+    }
+    public void start() {
+        syncFrozen();
+        Bukkit.getGlobalRegionScheduler().execute(plugin, moves::sync);
+    }
+    /**
+     * Resumes the entities of every frozen chunk. Chunks owned by the calling thread are resumed in
+     * place, which covers plugin disable during server shutdown, when nothing can be scheduled any
+     * more. Entities still missed keep their saved state and are resumed when they next load.
+     */
+    public void shutdown() {
+        active = false;
+        moves.shutdown();
+        syncFrozen();
+    }
+
+    private void syncFrozen() {
+        for (FrozenSnapshot snap : manager.snapshots()) {
+            World w = Bukkit.getWorld(snap.worldId());
+            if (w == null) continue;
+            for (int i = 0; i < snap.size(); i++) sync(w, snap.cx(i), snap.cz(i));
+        }
+    }
+    private void sync(World w, int cx, int cz) {
+        if (!active && Bukkit.isOwnedByCurrentRegion(w, cx, cz)) { apply(w, cx, cz); return; }
+        if (!plugin.isEnabled()) return;
+        Bukkit.getRegionScheduler().execute(plugin, w, cx, cz, () -> apply(w, cx, cz));
+    }
+    private void apply(World w, int cx, int cz) {
+        if (!w.isChunkLoaded(cx, cz)) return;
+        Chunk chunk = w.getChunkAt(cx, cz);
+        if (active && manager.isFrozen(w, cx, cz)) suspender.suspendAll(chunk);
+        else suspender.resumeAll(chunk);
+    }
+    /** Suspends an entity that crossed into a frozen chunk and resumes one that crossed out. */
+    private void moved(Entity ent, Location from, Location to) {
+        if (to == null || (from.getWorld() == to.getWorld()
+                && from.getBlockX() >> 4 == to.getBlockX() >> 4 && from.getBlockZ() >> 4 == to.getBlockZ() >> 4)) return;
+        if (manager.isFrozen(to)) suspender.suspend(ent);
+        else suspender.resume(ent);
+    }
+
+    @Override
+    public void onTransitions(List<ChunkTransition> batch) {
+        for (ChunkTransition t : batch) {
+            ChunkTransition.Kind k = t.kind();
+            if (k != ChunkTransition.Kind.FREEZE && k != ChunkTransition.Kind.UNFREEZE && k != ChunkTransition.Kind.RESTORE) continue;
+            World w = Bukkit.getWorld(t.worldId());
+            if (w != null) sync(w, t.cx(), t.cz());
+        }
+        moves.sync();
+    }
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent e) {
+        Chunk c = e.getChunk();
+        boolean frozen = manager.isFrozen(e.getWorld(), c.getX(), c.getZ());
+        for (Entity ent : e.getEntities()) {
+            if (frozen) suspender.suspend(ent); else suspender.resume(ent);
+        }
+    }
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent e) {
+        for (Entity ent : e.getEntities()) suspender.resume(ent);
+    }
+
+    /** Registered only while something is frozen, since suspended entities exist only then. */
+    private final class MoveHandlers implements Listener {
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onSpawn(EntitySpawnEvent e) {
+            Entity ent = e.getEntity();
+            if (!manager.isFrozen(e.getLocation()) || !suspender.canSuspend(ent)) return;
+            ent.getScheduler().execute(plugin, () -> { if (manager.isFrozen(ent.getLocation())) suspender.suspend(ent); }, null, 1L);
+        }
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onLivingMove(EntityMoveEvent e) { moved(e.getEntity(), e.getFrom(), e.getTo()); }
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onVehicleMove(VehicleMoveEvent e) { moved(e.getVehicle(), e.getFrom(), e.getTo()); }
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onTeleport(EntityTeleportEvent e) { moved(e.getEntity(), e.getFrom(), e.getTo()); }
+    }
+}
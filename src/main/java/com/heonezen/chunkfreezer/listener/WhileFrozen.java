@@ -0,0 +1,55 @@
+package com.heonezen.chunkfreezer.listener;
+
+import com.heonezen.chunkfreezer.freeze.FrozenChunkManager;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Keeps a listener registered only while some chunk is frozen. It is registered as soon as
+ * {@link #sync} sees a frozen chunk and unregistered once nothing has been frozen for
+ * {@code lingerTicks}, so a chunk thawing and refreezing does not churn the handler lists.
+ * {@link #sync} runs on the global region thread; {@link #shutdown} may run on any thread.
+ */
+final class WhileFrozen {
+
+    private final Plugin plugin;
+    private final FrozenChunkManager frozen;
+    private final Listener handlers;
+    private final long lingerTicks;
+    private volatile boolean registered;
+    private volatile ScheduledTask lingerTask;
+
+    WhileFrozen(Plugin plugin, FrozenChunkManager frozen, Listener handlers, long lingerTicks) {
+        this.plugin = plugin;
+        this.frozen = frozen;
+        this.handlers = handlers;
+        this.lingerTicks = lingerTicks;
+    }
+
+    void sync() {
+        if (frozen.hasAnyFrozenChunks()) {
+            ScheduledTask t = lingerTask;
+            if (t != null) { t.cancel(); lingerTask = null; }
+            if (!registered) {
+                Bukkit.getPluginManager().registerEvents(handlers, plugin);
+                registered = true;
+            }
+        } else if (registered && lingerTask == null) {
+            lingerTask = Bukkit.getGlobalRegionScheduler().runDelayed(plugin, _t -> {
+                lingerTask = null;
+                if (registered && !frozen.hasAnyFrozenChunks()) {
+                    HandlerList.unregisterAll(handlers);
+                    registered = false;
+                }
+            }, lingerTicks);
+        }
+    }
+    void shutdown() {
+        ScheduledTask t = lingerTask;
+        if (t != null) { try { t.cancel(); } catch (Throwable ignored) {} lingerTask = null; }
+        if (registered) { HandlerList.unregisterAll(handlers); registered = false; }
+    }
+}
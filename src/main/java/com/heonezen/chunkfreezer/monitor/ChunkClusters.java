@@ -0,0 +1,125 @@
+package com.heonezen.chunkfreezer.monitor;
+
+import com.heonezen.chunkfreezer.util.ChunkKey;
+import com.heonezen.chunkfreezer.util.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incremental union-find over edge-adjacent chunks whose load is at or above a suspicious level.
+ * Each root carries its cluster's total load and member list, so joining a chunk or changing its
+ * load is near constant time. Union-find cannot split, so a chunk leaving rebuilds only its own
+ * cluster from the remaining members. Writers lock the world's map.
+ */
+final class ChunkClusters {
+
+    private static final long[] NONE = new long[0];
+
+    private static final class Node {
+        final long key;
+        Node parent = this;
+        int load;
+        int total;
+        List<Node> members;
+
+        Node(long key, int load) {
+            this.key = key; this.load = load; this.total = load;
+            this.members = new ArrayList<>(1);
+            members.add(this);
+        }
+        void reset() {
+            parent = this; total = load;
+            members = new ArrayList<>(1);
+            members.add(this);
+        }
+    }
+
+    private final int suspicious;
+    private final Map<UUID, LongObjectMap<Node>> worlds = new ConcurrentHashMap<>();
+
+    ChunkClusters(int suspicious) { this.suspicious = Math.max(1, suspicious); }
+
+    /** Records the load of {@code (cx, cz)} and returns its cluster's total, or 0 below the suspicious level. */
+    int update(UUID worldId, int cx, int cz, int load) {
+        LongObjectMap<Node> map = worlds.computeIfAbsent(worldId, _k -> new LongObjectMap<>());
+        long key = ChunkKey.pack(cx, cz);
+        synchronized (map) {
+            Node n = map.get(key);
+            if (load < suspicious) {
+                if (n != null) detach(map, n);
+                return 0;
+            }
+            if (n == null) {
+                map.put(key, n = new Node(key, load));
+                link(map, n, cx, cz);
+            } else {
+                find(n).total += load - n.load;
+                n.load = load;
+            }
+            return find(n).total;
+        }
+    }
+    void remove(UUID worldId, int cx, int cz) {
+        LongObjectMap<Node> map = worlds.get(worldId);
+        if (map == null) return;
+        synchronized (map) {
+            Node n = map.get(ChunkKey.pack(cx, cz));
+            if (n != null) detach(map, n);
+        }
+    }
+    /** Total load of the cluster holding {@code (cx, cz)}; 0 if it is not in one. */
+    int total(UUID worldId, int cx, int cz) {
+        LongObjectMap<Node> map = worlds.get(worldId);
+        if (map == null) return 0;
+        synchronized (map) {
+            Node n = map.get(ChunkKey.pack(cx, cz));
+            return n == null ? 0 : find(n).total;
+        }
+    }
+    /** Packed keys of every chunk in the cluster of {@code (cx, cz)}; empty if it is not in one. */
+    long[] members(UUID worldId, int cx, int cz) {
+        LongObjectMap<Node> map = worlds.get(worldId);
+        if (map == null) return NONE;
+        synchronized (map) {
+            Node n = map.get(ChunkKey.pack(cx, cz));
+            if (n == null) return NONE;
+            List<Node> members = find(n).members;
+            long[] out = new long[members.size()];
+            for (int i = 0; i < out.length; i++) out[i] = members.get(i).key;
+            return out;
+        }
+    }
+    void clear() { worlds.clear(); }
+
+    private static Node find(Node n) {
+        while (n.parent != n) { n.parent = n.parent.parent; n = n.parent; }
+        return n;
+    }
+    private static void union(Node a, Node b) {
+        a = find(a); b = find(b);
+        if (a == b) return;
+        if (a.members.size() < b.members.size()) { Node t = a; a = b; b = t; }
+        b.parent = a;
+        a.total += b.total;
+        a.members.addAll(b.members);
+        b.members = null;
+    }
+    private static void link(LongObjectMap<Node> map, Node n, int cx, int cz) {
+        Node nb;
+        if ((nb = map.get(ChunkKey.pack(cx + 1, cz))) != null) union(n, nb);
+        if ((nb = map.get(ChunkKey.pack(cx - 1, cz))) != null) union(n, nb);
+        if ((nb = map.get(ChunkKey.pack(cx, cz + 1))) != null) union(n, nb);
+        if ((nb = map.get(ChunkKey.pack(cx, cz - 1))) != null) union(n, nb);
+    }
+    private static void detach(LongObjectMap<Node> map, Node n) {
+        List<Node> rest = find(n).members;
+        map.remove(n.key);
+        rest.remove(n);
+        for (Node m : rest) m.reset();
+        for (Node m : rest) link(map, m, ChunkKey.x(m.key), ChunkKey.z(m.key));
+    }
+}
@@ -1,8 +1,10 @@
 package com.heonezen.chunkfreezer.monitor;
 
+import com.heonezen.chunkfreezer.api.FreezeReason;
 import com.heonezen.chunkfreezer.config.Settings;
 import com.heonezen.chunkfreezer.freeze.FrozenChunkManager;
-import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import com.heonezen.chunkfreezer.util.ChunkKey;
+import com.heonezen.chunkfreezer.util.LongIntMap;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
@@ -19,51 +21,69 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.*;
 import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
 import org.bukkit.plugin.Plugin;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public final class ChunkMonitor implements Listener {
 
     private static final long REFRESH_COOLDOWN_MS = 150L;
+    private static final long PROJECTILE_DWELL_TICKS = 60L;
+    private static final int  PLAYERS_PER_TICK = 20;
 
     private final Plugin plugin;
     private final Settings settings;
     private final FrozenChunkManager manager;
+    private final EntityCounter counter;
+    private final RegionLoad regionLoad;
+    private final FreezeDigest digest;
     private final NamespacedKey dropOwnerKey;
+    private final ChunkSweeper<Cadence> sweeper;
+    private final LoadPurger loadPurger;
+    private final ChunkClusters clusters;
 
-    private final Map<Key, ScheduledTask> monitors    = new ConcurrentHashMap<>();
     private final Map<Key, Boolean>       msgState    = new ConcurrentHashMap<>();
     private final Map<Key, Long>          lastMsgMs   = new ConcurrentHashMap<>();
-    private final Map<UUID, Set<Key>>     coverage    = new ConcurrentHashMap<>();
-    private final Map<Key, Integer>       interest    = new ConcurrentHashMap<>();
+    private final Map<UUID, Square>       coverage    = new ConcurrentHashMap<>();
+    private final Map<UUID, LongIntMap>   interest    = new ConcurrentHashMap<>();
     private final Map<UUID, Long>         refreshedAt = new ConcurrentHashMap<>();
-    private final Map<UUID, Long>         projectileEnteredFrozen = new ConcurrentHashMap<>();
+    private volatile StartupScan scan;
+    private volatile boolean closed;
 
-    public ChunkMonitor(Plugin plugin, Settings settings, FrozenChunkManager manager) {
+    public ChunkMonitor(Plugin plugin, Settings settings, FrozenChunkManager manager, EntityCounter counter, RegionLoad regionLoad, FreezeDigest digest) {
         this.plugin = plugin;
+        this.digest = digest;
         this.settings = settings;
         this.manager = manager;
+        this.counter = counter;
+        this.regionLoad = regionLoad;
         this.dropOwnerKey = new NamespacedKey(plugin, "dropOwner");
+        this.loadPurger = new LoadPurger(plugin, settings);
+        this.clusters = new ChunkClusters(settings.clusterSuspiciousLoad);
+        this.sweeper = new ChunkSweeper<>(plugin, settings.checkPeriodTicks, () -> new Cadence(settings.checkPeriodTicks), this::tick);
     }
+    /**
+     * Re-establishes coverage for online players, spread over a few ticks, and re-checks frozen
+     * chunks through a staged {@link StartupScan} rather than every loaded chunk at once. The scan
+     * waits for the journal replay, since the frozen set is empty until then.
+     */
     public void runStartupScan() {
-        Bukkit.getGlobalRegionScheduler().runDelayed(plugin, _t -> {
-            for (Player p : Bukkit.getOnlinePlayers()) {
-                p.getScheduler().execute(plugin, () -> refreshCoverage(p), null, 1L);
-            }
-            if (!settings.instantDespawnEnabled) return;
-            for (World w : Bukkit.getWorlds()) {
-                for (Chunk chunk : w.getLoadedChunks()) {
-                    if (!manager.isFrozen(w, chunk.getX(), chunk.getZ())) continue;
-                    final World fw = w; final int cx = chunk.getX(), cz = chunk.getZ();
-                    Bukkit.getRegionScheduler().execute(plugin, fw, cx, cz, () -> {
-                        if (fw.isChunkLoaded(cx, cz))
-                            despawnIfAbandoned(fw, cx, cz, fw.getChunkAt(cx, cz));
-                    });
-                }
-            }
-        }, 20L);
+        int i = 0;
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            p.getScheduler().execute(plugin, () -> refreshCoverage(p), null, 20L + i++ / PLAYERS_PER_TICK);
+        }
+        if (!settings.instantDespawnEnabled) return;
+        manager.whenReplayed(() -> {
+            if (closed) return;
+            StartupScan s = StartupScan.start(plugin, manager::snapshots, 20L, (w, cx, cz) -> {
+                if (w.isChunkLoaded(cx, cz) && manager.isFrozen(w, cx, cz)) despawnIfAbandoned(w, cx, cz, w.getChunkAt(cx, cz));
+            });
+            scan = s;
+            if (closed) s.cancel();
+        });
     }
     @EventHandler public void onJoin(PlayerJoinEvent e) {
         Player p = e.getPlayer();
@@ -80,12 +100,8 @@ public final class ChunkMonitor implements Listener {
         Player p = e.getPlayer();
         p.getScheduler().execute(plugin, () -> refreshCoverage(p), null, 2L);
     }
-    @EventHandler(ignoreCancelled = true) public void onMove(PlayerMoveEvent e) {
-        if (e.getTo() == null || e.getFrom().getWorld() != e.getTo().getWorld()) return;
-        if ((e.getFrom().getBlockX() >> 4) == (e.getTo().getBlockX() >> 4)
-                && (e.getFrom().getBlockZ() >> 4) == (e.getTo().getBlockZ() >> 4)) return;
-        refreshCoverage(e.getPlayer());
-    }
+    /** A player walked into another chunk of the same world; see {@code MoveDispatcher}. */
+    public void onChunkCrossing(Player p) { refreshCoverage(p); }
     private void refreshCoverage(Player p) {
         if (p == null || !p.isOnline()) return;
         long now = System.currentTimeMillis();
@@ -93,205 +109,382 @@ public final class ChunkMonitor implements Listener {
         if (last != null && now - last < REFRESH_COOLDOWN_MS) return;
         refreshedAt.put(p.getUniqueId(), now);
         World w = p.getWorld();
-        int pcx = p.getLocation().getBlockX() >> 4;
-        int pcz = p.getLocation().getBlockZ() >> 4;
         int r = Math.max(2, Math.min(32, w.getSimulationDistance() + 1));
-        UUID worldId = w.getUID();
-        Set<Key> next = new HashSet<>((2 * r + 1) * (2 * r + 1) + 1, 0.9f);
-        for (int dx = -r; dx <= r; dx++)
-            for (int dz = -r; dz <= r; dz++)
-                next.add(new Key(worldId, pcx + dx, pcz + dz));
-        UUID pid = p.getUniqueId();
-        Set<Key> prev = coverage.put(pid, Collections.unmodifiableSet(next));
-        if (prev == null) {
-            for (Key k : next) if (interest.merge(k, 1, Integer::sum) == 1) startIfLoaded(w, k);
+        Square next = new Square(w.getUID(), p.getLocation().getBlockX() >> 4, p.getLocation().getBlockZ() >> 4, r);
+        Square prev = coverage.put(p.getUniqueId(), next);
+        if (next.equals(prev)) return;
+        if (prev != null && prev.worldId().equals(next.worldId()) && prev.overlaps(next)) {
+            prev.forEachOutside(next, (cx, cz) -> decrementInterest(prev.worldId(), cx, cz));
+            next.forEachOutside(prev, (cx, cz) -> incrementInterest(w, cx, cz));
             return;
         }
-        for (Key k : prev) if (!next.contains(k)) decrementInterest(k);
-        for (Key k : next) if (!prev.contains(k) && interest.merge(k, 1, Integer::sum) == 1) startIfLoaded(w, k);
+        if (prev != null) prev.forEach((cx, cz) -> decrementInterest(prev.worldId(), cx, cz));
+        next.forEach((cx, cz) -> incrementInterest(w, cx, cz));
     }
     private void removeCoverage(UUID pid) {
         refreshedAt.remove(pid);
-        Set<Key> prev = coverage.remove(pid);
-        if (prev != null) prev.forEach(this::decrementInterest);
-    }
-    private void decrementInterest(Key k) {
-        interest.compute(k, (key, cur) -> {
-            if (cur == null || cur <= 1) {
-                ScheduledTask t = monitors.remove(key);
-                if (t != null) { try { t.cancel(); } catch (Throwable ignored) {} }
-                msgState.remove(key);
-                lastMsgMs.remove(key);
-                return null;
-            }
-            return cur - 1;
-        });
+        Square prev = coverage.remove(pid);
+        if (prev != null) prev.forEach((cx, cz) -> decrementInterest(prev.worldId(), cx, cz));
+    }
+    private int interestIn(UUID worldId, int cx, int cz) {
+        LongIntMap map = interest.get(worldId);
+        return map != null ? map.get(ChunkKey.pack(cx, cz)) : 0;
+    }
+    private void incrementInterest(World w, int cx, int cz) {
+        LongIntMap map = interest.computeIfAbsent(w.getUID(), _k -> new LongIntMap());
+        int now;
+        synchronized (map) { now = map.addTo(ChunkKey.pack(cx, cz), 1); }
+        if (now == 1 && w.isChunkLoaded(cx, cz)) ensureMonitored(w, cx, cz);
+    }
+    private void decrementInterest(UUID worldId, int cx, int cz) {
+        LongIntMap map = interest.get(worldId);
+        if (map == null) return;
+        synchronized (map) {
+            if (map.addTo(ChunkKey.pack(cx, cz), -1) > 0) return;
+            sweeper.remove(worldId, cx, cz);
+        }
+        Key key = new Key(worldId, cx, cz);
+        msgState.remove(key);
+        lastMsgMs.remove(key);
     }
     @EventHandler public void onChunkLoad(ChunkLoadEvent e) {
         Key k = new Key(e.getWorld().getUID(), e.getChunk().getX(), e.getChunk().getZ());
-        if (interest.getOrDefault(k, 0) > 0) ensureMonitored(e.getWorld(), k.cx(), k.cz());
-        if (settings.entitiesProtectionEnabled && settings.destroyThreshold > 0) {
-            World w = e.getWorld();
-            int cx = e.getChunk().getX(), cz = e.getChunk().getZ();
-            Bukkit.getRegionScheduler().execute(plugin, w, cx, cz, () -> {
-                if (!w.isChunkLoaded(cx, cz)) return;
-                Chunk loaded = w.getChunkAt(cx, cz);
-                int count = 0;
-                for (Entity ent : loaded.getEntities()) {
-                    if (!(ent instanceof Player) && !settings.isIgnored(ent.getType())) count++;
-                }
-                if (count > settings.destroyThreshold) {
-                    for (Entity ent : loaded.getEntities()) {
-                        if (!(ent instanceof Player) && !settings.isIgnored(ent.getType())) ent.remove();
-                    }
-                }
-            });
-        }
+        boolean watched = interestIn(k.worldId(), k.cx(), k.cz()) > 0;
+        if (watched) ensureMonitored(e.getWorld(), k.cx(), k.cz());
+        if (!watched || !settings.clusterFreezeEnabled) manager.unfreezeChunk(e.getWorld(), k.cx(), k.cz(), FreezeReason.CLUSTER);
+        if (!watched || !settings.lagFreezeEnabled) manager.unfreezeChunk(e.getWorld(), k.cx(), k.cz(), FreezeReason.LAG);
+    }
+    @EventHandler public void onEntitiesLoad(EntitiesLoadEvent e) {
+        if (!settings.entitiesProtectionEnabled || settings.destroyThreshold <= 0) return;
+        loadPurger.offer(e.getWorld(), e.getChunk().getX(), e.getChunk().getZ(), e.getEntities().size());
     }
     @EventHandler public void onChunkUnload(ChunkUnloadEvent e) {
         World w = e.getWorld(); int cx = e.getChunk().getX(), cz = e.getChunk().getZ();
         Key k = new Key(w.getUID(), cx, cz);
-        ScheduledTask t = monitors.remove(k);
-        if (t != null) t.cancel();
+        sweeper.remove(k.worldId(), cx, cz);
+        leave(w, cx, cz);
         msgState.remove(k); lastMsgMs.remove(k);
-        if (manager.isFrozen(w, cx, cz)) manager.unfreezeChunk(e.getChunk());
-    }
-    private void startIfLoaded(World w, Key k) {
-        if (w.getUID().equals(k.worldId()) && w.isChunkLoaded(k.cx(), k.cz()))
-            ensureMonitored(w, k.cx(), k.cz());
     }
     private void ensureMonitored(World world, int cx, int cz) {
-        Key k = new Key(world.getUID(), cx, cz);
-        if (monitors.containsKey(k) || interest.getOrDefault(k, 0) <= 0) return;
-        ScheduledTask t = Bukkit.getRegionScheduler().runAtFixedRate(plugin, world, cx, cz, st -> tick(world, cx, cz, st), 1L, settings.checkPeriodTicks);
-        monitors.put(k, t);
+        if (interestIn(world.getUID(), cx, cz) > 0) sweeper.add(world, cx, cz);
     }
-    private void tick(World world, int cx, int cz, ScheduledTask st) {
+    private long tick(World world, int cx, int cz, Cadence cadence) {
         Key k = new Key(world.getUID(), cx, cz);
-        if (interest.getOrDefault(k, 0) <= 0) {
-            st.cancel(); monitors.remove(k); msgState.remove(k); lastMsgMs.remove(k);
-            return;
+        if (interestIn(k.worldId(), cx, cz) <= 0) {
+            sweeper.remove(k.worldId(), cx, cz); msgState.remove(k); lastMsgMs.remove(k);
+            leave(world, cx, cz);
+            return 0L;
         }
-        if (!world.isChunkLoaded(cx, cz)) return;
+        if (!world.isChunkLoaded(cx, cz)) return settings.checkPeriodTicks;
         Chunk chunk = world.getChunkAt(cx, cz);
-        int count = countForLimit(chunk);
-        if (settings.overloadPurgeEnabled && count >= settings.freezeThreshold && !settings.overloadPurgeEntityTypes.isEmpty()) {
-            purgeOverload(chunk);
-            count = countForLimit(chunk);
-        }
-        boolean frozenNow = manager.isFrozen(world, cx, cz);
-        if (!frozenNow && count >= settings.freezeThreshold) {
-            manager.freezeChunk(chunk); frozenNow = true;
-        } else if (frozenNow && count <= settings.unfreezeThreshold && !manager.isUnfreezeLocked(world, cx, cz)) {
-            manager.unfreezeChunk(chunk); frozenNow = false;
+        int count = counter.count(chunk);
+        cadence.observe(count);
+        int reasons = manager.getFreezeReasons(world, cx, cz);
+        boolean entityFrozen = FreezeReason.ENTITY.in(reasons);
+        boolean purge = settings.overloadPurgeEnabled && count >= settings.freezeThreshold && !settings.overloadPurgeEntityTypes.isEmpty();
+        boolean deciding = entityFrozen ? count <= settings.unfreezeThreshold : cadence.reaches(count);
+        if (reasons != 0 || purge || deciding) {
+            Pass pass = new Pass(chunk.getEntities(), purge, settings.instantDespawnEnabled && isAbandoned(world, cx, cz));
+            count = pass.load / Settings.WEIGHT_UNIT;
+            counter.set(world, cx, cz, pass.load);
+            if (!entityFrozen && cadence.reaches(count)) {
+                manager.freezeChunk(chunk, FreezeReason.ENTITY); entityFrozen = true;
+            } else if (entityFrozen && count <= settings.unfreezeThreshold && !manager.isUnfreezeLocked(world, cx, cz)) {
+                manager.unfreezeChunk(chunk, FreezeReason.ENTITY); entityFrozen = false;
+            }
+            if (entityFrozen || (reasons & ~FreezeReason.ENTITY.bit()) != 0) pass.applyFrozen(world, cx, cz, cadence);
         }
+        if (settings.clusterFreezeEnabled) checkCluster(world, cx, cz, count, FreezeReason.CLUSTER.in(reasons));
         manager.updateEntityCount(world, cx, cz, count);
-        if (frozenNow && settings.watchItemsEnabled && settings.returnPlayerDroppedItem)
-            redirectFrozenItems(world, cx, cz, chunk);
-        if (frozenNow)
-            checkProjectileStuck(chunk);
-        if (frozenNow && settings.instantDespawnEnabled)
-            despawnIfAbandoned(world, cx, cz, chunk);
-        updateBroadcast(world, cx, cz, k, frozenNow, count, frozenNow ? manager.getFreezeCause(world, cx, cz) : null);
-    }
-    private void checkProjectileStuck(Chunk chunk) {
-        long now = System.currentTimeMillis();
-        for (Entity e : chunk.getEntities()) {
-            if (!(e instanceof Projectile)) continue;
-            if (!e.isValid() || e.isDead()) { projectileEnteredFrozen.remove(e.getUniqueId()); continue; }
-            UUID id = e.getUniqueId();
-            long first = projectileEnteredFrozen.computeIfAbsent(id, k -> now);
-            if (now - first >= 3000L) {
-                e.remove();
-                projectileEnteredFrozen.remove(id);
+        updateBroadcast(world, cx, cz, k, entityFrozen, count);
+        long next = cadence.next(count, reasons != 0 || entityFrozen);
+        if (settings.lagFreezeEnabled) checkRegionBudget(world, cx, cz);
+        return next;
+    }
+    /**
+     * Feeds this chunk's load into its cluster, then freezes the whole cluster once its total
+     * reaches the cluster freeze load, or thaws it as one once the total has fallen back.
+     */
+    private void checkCluster(World world, int cx, int cz, int count, boolean clustered) {
+        int total = clusters.update(world.getUID(), cx, cz, count);
+        if (!clustered && total >= settings.clusterFreezeLoad) {
+            long[] members = clusters.members(world.getUID(), cx, cz);
+            if (members.length < 2) return;
+            for (long key : members) onChunk(world, ChunkKey.x(key), ChunkKey.z(key), c -> manager.freezeChunk(c, FreezeReason.CLUSTER));
+            digest.report(world, cx, cz, "cluster=" + total + " over " + members.length + " chunks", total, settings.clusterFreezeLoad);
+        } else if (clustered && total <= settings.clusterUnfreezeLoad) {
+            for (long key : clusters.members(world.getUID(), cx, cz)) onChunk(world, ChunkKey.x(key), ChunkKey.z(key), c -> manager.unfreezeChunk(c, FreezeReason.CLUSTER));
+            if (world.isChunkLoaded(cx, cz)) manager.unfreezeChunk(world.getChunkAt(cx, cz), FreezeReason.CLUSTER);
+        }
+    }
+    /**
+     * Drops the reasons only this monitor can lift from a chunk it stops ticking. LAG is released
+     * by the region budget check, which only walks chunks it still ticks, so it goes now rather
+     * than being journalled and coming back after a restart.
+     */
+    private void leave(World world, int cx, int cz) {
+        leaveCluster(world, cx, cz);
+        manager.unfreezeChunk(world, cx, cz, FreezeReason.LAG);
+    }
+    /**
+     * Takes {@code (cx, cz)} out of its cluster once it is no longer ticked here. A cluster only
+     * thaws from its members' ticks, so the chunk leaving drops CLUSTER, and so does every member
+     * left behind whose cluster total is now at or below the unfreeze load. This also reaches
+     * members that are unloaded or no longer watched.
+     */
+    private void leaveCluster(World world, int cx, int cz) {
+        UUID worldId = world.getUID();
+        long[] members = clusters.members(worldId, cx, cz);
+        clusters.remove(worldId, cx, cz);
+        manager.unfreezeChunk(world, cx, cz, FreezeReason.CLUSTER);
+        long self = ChunkKey.pack(cx, cz);
+        for (long key : members) {
+            if (key == self) continue;
+            int x = ChunkKey.x(key), z = ChunkKey.z(key);
+            if (clusters.total(worldId, x, z) <= settings.clusterUnfreezeLoad) manager.unfreezeChunk(world, x, z, FreezeReason.CLUSTER);
+        }
+    }
+    /** Runs {@code action} on a loaded chunk, hopping to its region if another one owns it. */
+    private void onChunk(World world, int cx, int cz, Consumer<Chunk> action) {
+        if (Bukkit.isOwnedByCurrentRegion(world, cx, cz)) { if (world.isChunkLoaded(cx, cz)) action.accept(world.getChunkAt(cx, cz)); }
+        else Bukkit.getRegionScheduler().execute(plugin, world, cx, cz, () -> { if (world.isChunkLoaded(cx, cz)) action.accept(world.getChunkAt(cx, cz)); });
+    }
+    /**
+     * Once per lag check interval per region: over the MSPT budget, freeze the region's heaviest
+     * unfrozen chunks that carry at least the minimum load; back under the resume level, thaw
+     * chunks that were frozen for lag.
+     */
+    private void checkRegionBudget(World world, int cx, int cz) {
+        if (!sweeper.claimRegionCheck(world, cx, cz, System.currentTimeMillis(), settings.lagCheckSeconds * 1000L)) return;
+        double mspt = regionLoad.mspt(world, cx, cz);
+        if (Double.isNaN(mspt)) return;
+        int limit = settings.lagChunksPerCheck;
+        if (mspt > settings.lagMaxMspt) {
+            long[] keys = new long[limit];
+            int[] loads = new int[limit];
+            int[] n = {0};
+            sweeper.forEachOwned(world, (x, z, c) -> {
+                int load = c.lastCount;
+                if (load < settings.lagMinLoad || manager.isFrozen(world, x, z)) return;
+                if (n[0] == limit && loads[limit - 1] >= load) return;
+                int at = n[0] < limit ? n[0]++ : limit - 1;
+                while (at > 0 && loads[at - 1] < load) { loads[at] = loads[at - 1]; keys[at] = keys[at - 1]; at--; }
+                loads[at] = load; keys[at] = ChunkKey.pack(x, z);
+            });
+            for (int i = 0; i < n[0]; i++) {
+                int x = ChunkKey.x(keys[i]), z = ChunkKey.z(keys[i]);
+                if (world.isChunkLoaded(x, z)) manager.freezeChunk(world.getChunkAt(x, z), FreezeReason.LAG);
             }
+        } else if (mspt <= settings.lagResumeMspt) {
+            int[] left = {limit};
+            sweeper.forEachOwned(world, (x, z, c) -> {
+                if (left[0] <= 0 || !manager.isFrozenFor(world, x, z, FreezeReason.LAG) || !world.isChunkLoaded(x, z)) return;
+                manager.unfreezeChunk(world.getChunkAt(x, z), FreezeReason.LAG);
+                left[0]--;
+            });
         }
-        projectileEnteredFrozen.entrySet().removeIf(entry -> now - entry.getValue() > 60_000L);
     }
-    private void redirectFrozenItems(World world, int cx, int cz, Chunk chunk) {
-        for (Entity e : chunk.getEntities()) {
-            if (!(e instanceof Item item)) continue;
-            if (!item.isValid() || item.isDead()) continue;
-            if (item.getPickupDelay() == Integer.MAX_VALUE) continue;
-            item.setPickupDelay(Integer.MAX_VALUE);
-            ItemStack stack = item.getItemStack().clone();
-            String ownerStr = item.getPersistentDataContainer().get(dropOwnerKey, PersistentDataType.STRING);
-            item.remove();
-            if (ownerStr != null) {
-                try {
-                    Player owner = Bukkit.getPlayer(java.util.UUID.fromString(ownerStr));
-                    if (owner != null && owner.isOnline()) {
-                        owner.getScheduler().execute(plugin, () -> {
-                            owner.getInventory().addItem(stack).values().forEach(rem -> owner.getWorld().dropItemNaturally(owner.getLocation(), rem));
-                            owner.updateInventory();
-                        }, null, 1L);
-                        continue;
-                    }
-                } catch (IllegalArgumentException ignored) {}
+    /**
+     * Per-chunk check interval and growth trend. {@code rate} is an exponentially weighted average
+     * of entities gained per tick. A rising count is checked often enough to sample it at least
+     * twice before it can reach the freeze threshold; a steady or falling one backs off by
+     * doubling, and frozen chunks stay on the base period so their stages keep running.
+     */
+    private final class Cadence {
+        private static final double ALPHA = 0.5;
+
+        long interval;
+        int lastCount = -1;
+        double rate;
+        Set<UUID> projectiles;
+
+        Cadence(long interval) { this.interval = interval; }
+        void observe(int count) {
+            if (lastCount < 0) return;
+            double sample = (double) (count - lastCount) / Math.max(1L, interval);
+            rate = ALPHA * sample + (1 - ALPHA) * rate;
+        }
+        /**
+         * True once {@code count} reaches the freeze threshold, or, with predictive freezing, once
+         * the trend projects it there within the horizon. Predictions need a count above
+         * unfreeze-threshold so a pre-emptive freeze is not thawed on the next check.
+         */
+        boolean reaches(int count) {
+            if (count >= settings.freezeThreshold) return true;
+            return settings.predictiveFreezeEnabled && rate > 0 && count > settings.unfreezeThreshold
+                    && count + rate * settings.predictiveHorizonTicks >= settings.freezeThreshold;
+        }
+        long next(int count, boolean frozen) {
+            long base = settings.checkPeriodTicks;
+            lastCount = count;
+            if (!settings.adaptiveCheckEnabled || frozen) return interval = base;
+            int headroom = settings.freezeThreshold - count;
+            long next = rate > 0 ? (long) (headroom / (2 * rate)) : interval * 2;
+            if (headroom * 4 <= settings.freezeThreshold) next = Math.min(next, base);
+            return interval = Math.max(settings.adaptiveMinTicks, Math.min(settings.adaptiveMaxTicks, next));
+        }
+    }
+    /**
+     * One walk over a chunk's entities: purges overload types, weighs what is left and sorts the
+     * rest into the items, projectiles and despawn candidates that {@link #applyFrozen} acts on.
+     */
+    private final class Pass {
+        final Entity[] entities;
+        int load;
+        int[] items = EMPTY, projectiles = EMPTY, despawn = EMPTY;
+        int itemCount, projectileCount, despawnCount;
+
+        Pass(Entity[] entities, boolean purge, boolean abandoned) {
+            this.entities = entities;
+            boolean redirect = settings.watchItemsEnabled && settings.returnPlayerDroppedItem;
+            for (int i = 0; i < entities.length; i++) {
+                Entity e = entities[i];
+                if (e instanceof Player) continue;
+                int flags = settings.typeFlags(e.getType());
+                if (e instanceof Projectile) {
+                    load += settings.weight(e.getType());
+                    projectiles = push(projectiles, projectileCount++, i);
+                    continue;
+                }
+                boolean ignored = (flags & Settings.TYPE_IGNORED) != 0;
+                if (!ignored && purge && (flags & Settings.TYPE_PURGE) != 0) { e.remove(); continue; }
+                load += settings.weight(e.getType());
+                if (redirect && e instanceof Item item && item.getPickupDelay() != Integer.MAX_VALUE) {
+                    items = push(items, itemCount++, i);
+                    continue;
+                }
+                if (!ignored && abandoned && (flags & Settings.TYPE_DESPAWN_IGNORED) == 0
+                        && (settings.instantDespawnNamedEntity || e.customName() == null))
+                    despawn = push(despawn, despawnCount++, i);
             }
-            int[] dxs = {0, 0, 1, -1};
-            int[] dzs = {1, -1, 0, 0};
-            for (int i = 0; i < 4; i++) {
-                int ncx = cx + dxs[i], ncz = cz + dzs[i];
-                if (!manager.isFrozen(world, ncx, ncz) && world.isChunkLoaded(ncx, ncz)) {
-                    Location exit = new Location(world, (ncx << 4) + 8.0, e.getLocation().getY(), (ncz << 4) + 8.0);
-                    Bukkit.getRegionScheduler().execute(plugin, world, ncx, ncz, () -> world.dropItemNaturally(exit, stack));
-                    break;
+        }
+        void applyFrozen(World world, int cx, int cz, Cadence cadence) {
+            for (int i = 0; i < itemCount; i++) redirectItem(world, cx, cz, (Item) entities[items[i]]);
+            for (int i = 0; i < projectileCount; i++) trackProjectile(world, cx, cz, cadence, entities[projectiles[i]]);
+            for (int i = 0; i < despawnCount; i++) entities[despawn[i]].remove();
+        }
+    }
+    private static final int[] EMPTY = new int[0];
+    private static int[] push(int[] a, int n, int v) {
+        if (n == a.length) a = Arrays.copyOf(a, Math.max(8, n * 2));
+        a[n] = v;
+        return a;
+    }
+    /**
+     * Gives a projectile seen in a frozen chunk {@link #PROJECTILE_DWELL_TICKS} to leave; the expiry
+     * rides on the section's timing wheel, so nothing is scanned while it waits.
+     */
+    private void trackProjectile(World world, int cx, int cz, Cadence cadence, Entity e) {
+        if (!e.isValid() || e.isDead()) return;
+        if (cadence.projectiles == null) cadence.projectiles = new HashSet<>();
+        UUID id = e.getUniqueId();
+        if (!cadence.projectiles.add(id)) return;
+        boolean armed = sweeper.schedule(world, cx, cz, PROJECTILE_DWELL_TICKS, () -> {
+            cadence.projectiles.remove(id);
+            if (Bukkit.isOwnedByCurrentRegion(e)) removeIfStuck(e);
+            else e.getScheduler().execute(plugin, () -> removeIfStuck(e), null, 1L);
+        });
+        if (!armed) cadence.projectiles.remove(id);
+    }
+    private void removeIfStuck(Entity e) {
+        if (e.isValid() && !e.isDead() && manager.isFrozen(e.getLocation())) e.remove();
+    }
+    private void redirectItem(World world, int cx, int cz, Item item) {
+        if (!item.isValid() || item.isDead()) return;
+        item.setPickupDelay(Integer.MAX_VALUE);
+        ItemStack stack = item.getItemStack().clone();
+        String ownerStr = item.getPersistentDataContainer().get(dropOwnerKey, PersistentDataType.STRING);
+        double y = item.getLocation().getY();
+        item.remove();
+        if (ownerStr != null) {
+            try {
+                Player owner = Bukkit.getPlayer(java.util.UUID.fromString(ownerStr));
+                if (owner != null && owner.isOnline()) {
+                    owner.getScheduler().execute(plugin, () -> {
+                        owner.getInventory().addItem(stack).values().forEach(rem -> owner.getWorld().dropItemNaturally(owner.getLocation(), rem));
+                        owner.updateInventory();
+                    }, null, 1L);
+                    return;
                 }
+            } catch (IllegalArgumentException ignored) {}
+        }
+        int[] dxs = {0, 0, 1, -1};
+        int[] dzs = {1, -1, 0, 0};
+        for (int i = 0; i < 4; i++) {
+            int ncx = cx + dxs[i], ncz = cz + dzs[i];
+            if (!manager.isFrozen(world, ncx, ncz) && world.isChunkLoaded(ncx, ncz)) {
+                Location exit = new Location(world, (ncx << 4) + 8.0, y, (ncz << 4) + 8.0);
+                Bukkit.getRegionScheduler().execute(plugin, world, ncx, ncz, () -> world.dropItemNaturally(exit, stack));
+                break;
             }
         }
     }
-    void despawnIfAbandoned(World world, int cx, int cz, Chunk chunk) {
+    private boolean isAbandoned(World world, int cx, int cz) {
         double r = settings.instantDespawnRadius;
         double ccx = (cx << 4) + 8.0, ccz = (cz << 4) + 8.0;
         for (Player p : world.getPlayers()) {
             if (p.isDead()) continue;
             double dx = p.getLocation().getX() - ccx, dz = p.getLocation().getZ() - ccz;
-            if (dx * dx + dz * dz <= r * r) return;
-        }
-        for (Entity e : chunk.getEntities()) {
-            if (e instanceof Player) continue;
-            if (e instanceof Projectile) continue;
-            if (settings.isIgnored(e.getType()) || settings.isInstantDespawnIgnored(e.getType())) continue;
-            if (!settings.instantDespawnNamedEntity && e.customName() != null) continue;
-            e.remove();
+            if (dx * dx + dz * dz <= r * r) return false;
         }
+        return true;
     }
-    private int countForLimit(Chunk chunk) {
-        int c = 0;
-        for (Entity e : chunk.getEntities()) {
-            if (e instanceof Player) continue;
-            if (!settings.isIgnored(e.getType())) c++;
-        }
-        return c;
-    }
-    private void purgeOverload(Chunk chunk) {
+    void despawnIfAbandoned(World world, int cx, int cz, Chunk chunk) {
+        if (!isAbandoned(world, cx, cz)) return;
         for (Entity e : chunk.getEntities()) {
             if (e instanceof Player || e instanceof Projectile) continue;
-            if (settings.isIgnored(e.getType())) continue;
-            if (settings.shouldPurgeProjectileType(e.getType())) e.remove();
+            if ((settings.typeFlags(e.getType()) & (Settings.TYPE_IGNORED | Settings.TYPE_DESPAWN_IGNORED)) != 0) continue;
+            if (!settings.instantDespawnNamedEntity && e.customName() != null) continue;
+            e.remove();
         }
     }
-    private void updateBroadcast(World world, int cx, int cz, Key k, boolean frozen, int count, FrozenChunkManager.FreezeCause cause) {
-        if (!settings.broadcast || (frozen && cause == FrozenChunkManager.FreezeCause.REDSTONE)) return;
+    private void updateBroadcast(World world, int cx, int cz, Key k, boolean frozen, int count) {
+        if (!settings.broadcast) return;
         Boolean prev = msgState.get(k);
-        if (prev == null) { msgState.put(k, frozen); if (frozen) broadcast(world, cx, cz, count, cause); return; }
+        if (prev == null) { msgState.put(k, frozen); if (frozen) broadcast(world, cx, cz, count); return; }
         if (prev == frozen) return;
         long now = System.currentTimeMillis();
         Long last = lastMsgMs.get(k);
         if (last != null && now - last < 1000L) { msgState.put(k, frozen); return; }
         lastMsgMs.put(k, now); msgState.put(k, frozen);
-        if (frozen) broadcast(world, cx, cz, count, cause);
+        if (frozen) broadcast(world, cx, cz, count);
     }
-    private void broadcast(World world, int cx, int cz, int count, FrozenChunkManager.FreezeCause cause) {
-        String msg = settings.prefix + "§8Chunk overloaded §e" + world.getName() + " §8xyz(§f" + ((cx << 4) + 8) + "§8, §f~§8, §f" + ((cz << 4) + 8) + "§8)" + (cause == FrozenChunkManager.FreezeCause.ENTITY ? " §c(entity=" + count + ")" : "");
-        Bukkit.getGlobalRegionScheduler().execute(plugin, () -> Bukkit.broadcastMessage(msg));
+    private void broadcast(World world, int cx, int cz, int count) {
+        String extra = FreezeReason.REDSTONE.in(manager.getFreezeReasons(world, cx, cz)) ? ", redstone loop" : "";
+        digest.report(world, cx, cz, "entity=" + count + extra, count, settings.freezeThreshold);
     }
     public void shutdown() {
-        monitors.values().forEach(t -> { try { t.cancel(); } catch (Throwable ignored) {} });
-        monitors.clear(); msgState.clear(); lastMsgMs.clear();
+        closed = true;
+        StartupScan s = scan;
+        if (s != null) s.cancel();
+        sweeper.shutdown();
+        loadPurger.shutdown();
+        clusters.clear();
+        msgState.clear(); lastMsgMs.clear();
         coverage.clear(); interest.clear(); refreshedAt.clear();
-        projectileEnteredFrozen.clear();
     }
     private record Key(UUID worldId, int cx, int cz) {}
+    private interface CellVisitor { void accept(int cx, int cz); }
+    /** Chunk square a player keeps monitored: {@code r} chunks around {@code (cx, cz)}. */
+    private record Square(UUID worldId, int cx, int cz, int r) {
+        int minX() { return cx - r; } int maxX() { return cx + r; }
+        int minZ() { return cz - r; } int maxZ() { return cz + r; }
+        boolean overlaps(Square o) {
+            return minX() <= o.maxX() && o.minX() <= maxX() && minZ() <= o.maxZ() && o.minZ() <= maxZ();
+        }
+        void forEach(CellVisitor v) {
+            for (int x = minX(); x <= maxX(); x++) for (int z = minZ(); z <= maxZ(); z++) v.accept(x, z);
+        }
+        /** Visits the cells of this square not covered by {@code o}: whole columns outside its x-range, edge strips inside it. */
+        void forEachOutside(Square o, CellVisitor v) {
+            for (int x = minX(); x <= maxX(); x++) {
+                if (x < o.minX() || x > o.maxX()) {
+                    for (int z = minZ(); z <= maxZ(); z++) v.accept(x, z);
+                    continue;
+                }
+                for (int z = minZ(); z <= Math.min(maxZ(), o.minZ() - 1); z++) v.accept(x, z);
+                for (int z = Math.max(minZ(), o.maxZ() + 1); z <= maxZ(); z++) v.accept(x, z);
+            }
+        }
+    }
 }
@@ -0,0 +1,164 @@
+package com.heonezen.chunkfreezer.monitor;
+
+import com.heonezen.chunkfreezer.util.ChunkKey;
+import com.heonezen.chunkfreezer.util.LongObjectMap;
+import com.heonezen.chunkfreezer.util.TimingWheel;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Visits a set of chunks with one repeating task per 16x16-chunk section instead of one per chunk.
+ * Sections are the unit Folia hands to regions, so a section's chunks are normally owned by the
+ * thread running its task. Each member carries its own cadence: the visitor returns the delay
+ * until the next visit, and the section's timing wheel fires members as they fall due.
+ */
+final class ChunkSweeper<S> {
+
+    interface Visitor<S> { long visit(World world, int cx, int cz, S state); }
+    interface StateVisitor<S> { void accept(int cx, int cz, S state); }
+
+    private static final int SECTION_SHIFT = 4;
+
+    private final class Member {
+        final long key;
+        final S state;
+        volatile TimingWheel.Timeout timeout;
+        Member(long key, S state) { this.key = key; this.state = state; }
+    }
+    private final class Section {
+        final World world;
+        final LongObjectMap<Member> members = new LongObjectMap<>();
+        final TimingWheel wheel = new TimingWheel();
+        long anchor;
+        ScheduledTask task;
+        volatile long regionCheckedAt;
+
+        Section(World world) { this.world = world; }
+        void schedule(long at) {
+            cancel();
+            anchor = at;
+            task = Bukkit.getRegionScheduler().runAtFixedRate(plugin, world, ChunkKey.x(at), ChunkKey.z(at), _t -> wheel.advance(), 1L, 1L);
+        }
+        void reanchor() {
+            long[] first = {0L};
+            boolean[] found = {false};
+            members.forEach((key, _m) -> { if (!found[0]) { first[0] = key; found[0] = true; } });
+            if (found[0]) schedule(first[0]);
+        }
+        void cancel() {
+            if (task != null) { try { task.cancel(); } catch (Throwable ignored) {} }
+            task = null;
+        }
+        void arm(Member m, long delay) {
+            m.timeout = wheel.schedule(delay, t -> fire(m, t));
+        }
+        void fire(Member m, TimingWheel.Timeout t) {
+            int cx = ChunkKey.x(m.key), cz = ChunkKey.z(m.key);
+            if (Bukkit.isOwnedByCurrentRegion(world, cx, cz)) visit(m, t, cx, cz);
+            else Bukkit.getRegionScheduler().execute(plugin, world, cx, cz, () -> visit(m, t, cx, cz));
+        }
+        private void visit(Member m, TimingWheel.Timeout t, int cx, int cz) {
+            if (m.timeout != t) return;
+            long next = visitor.visit(world, cx, cz, m.state);
+            synchronized (this) {
+                if (members.get(m.key) == m && m.timeout == t) arm(m, Math.max(1L, next));
+            }
+        }
+    }
+
+    private final Plugin plugin;
+    private final long initialSpread;
+    private final Supplier<S> factory;
+    private final Visitor<S> visitor;
+    private final Map<UUID, LongObjectMap<Section>> sections = new ConcurrentHashMap<>();
+
+    /** New members get their first visit within {@code initialSpread} ticks, spread by key. */
+    ChunkSweeper(Plugin plugin, long initialSpread, Supplier<S> factory, Visitor<S> visitor) {
+        this.plugin = plugin;
+        this.initialSpread = Math.max(1L, initialSpread);
+        this.factory = factory;
+        this.visitor = visitor;
+    }
+    private static long sectionOf(int cx, int cz) { return ChunkKey.pack(cx >> SECTION_SHIFT, cz >> SECTION_SHIFT); }
+
+    void add(World world, int cx, int cz) {
+        LongObjectMap<Section> map = sections.computeIfAbsent(world.getUID(), _k -> new LongObjectMap<>());
+        long key = ChunkKey.pack(cx, cz), sid = sectionOf(cx, cz);
+        synchronized (map) {
+            Section s = map.get(sid);
+            if (s == null) map.put(sid, s = new Section(world));
+            synchronized (s) {
+                if (s.members.get(key) != null) return;
+                Member m = new Member(key, factory.get());
+                s.members.put(key, m);
+                s.arm(m, 1L + Long.remainderUnsigned(key * 0x9E3779B97F4A7C15L, initialSpread));
+                if (s.members.size() == 1) s.schedule(key);
+            }
+        }
+    }
+    void remove(UUID worldId, int cx, int cz) {
+        LongObjectMap<Section> map = sections.get(worldId);
+        if (map == null) return;
+        long key = ChunkKey.pack(cx, cz), sid = sectionOf(cx, cz);
+        synchronized (map) {
+            Section s = map.get(sid);
+            if (s == null) return;
+            synchronized (s) {
+                Member m = s.members.remove(key);
+                if (m == null) return;
+                s.wheel.cancel(m.timeout);
+                m.timeout = null;
+                if (s.members.isEmpty()) { s.cancel(); map.remove(sid); }
+                else if (s.anchor == key) s.reanchor();
+            }
+        }
+    }
+    /**
+     * Runs {@code task} after {@code delayTicks} on the timing wheel of the section holding
+     * {@code (cx, cz)}, on that section's region thread. False if the chunk is not a member.
+     */
+    boolean schedule(World world, int cx, int cz, long delayTicks, Runnable task) {
+        LongObjectMap<Section> map = sections.get(world.getUID());
+        Section s = map != null ? map.get(sectionOf(cx, cz)) : null;
+        if (s == null || s.members.get(ChunkKey.pack(cx, cz)) == null) return false;
+        s.wheel.schedule(delayTicks, _t -> task.run());
+        return true;
+    }
+    /**
+     * Claims the periodic region-wide check for the region owning {@code (cx, cz)}: true at most
+     * once per {@code intervalMs} per region, and the claim is stamped on every section the
+     * current region owns. Region thread only.
+     */
+    boolean claimRegionCheck(World world, int cx, int cz, long nowMs, long intervalMs) {
+        LongObjectMap<Section> map = sections.get(world.getUID());
+        if (map == null) return false;
+        Section own = map.get(sectionOf(cx, cz));
+        if (own == null || nowMs - own.regionCheckedAt < intervalMs) return false;
+        map.forEach((sid, s) -> { if (owned(s)) s.regionCheckedAt = nowMs; });
+        return true;
+    }
+    /** Visits the members of every section owned by the current region. Region thread only. */
+    void forEachOwned(World world, StateVisitor<S> visitor) {
+        LongObjectMap<Section> map = sections.get(world.getUID());
+        if (map == null) return;
+        map.forEach((sid, s) -> {
+            if (owned(s)) s.members.forEach((key, m) -> visitor.accept(ChunkKey.x(key), ChunkKey.z(key), m.state));
+        });
+    }
+    private boolean owned(Section s) {
+        return Bukkit.isOwnedByCurrentRegion(s.world, ChunkKey.x(s.anchor), ChunkKey.z(s.anchor));
+    }
+    void shutdown() {
+        for (LongObjectMap<Section> map : sections.values()) {
+            synchronized (map) { map.forEach((sid, s) -> { s.cancel(); s.wheel.clear(); }); map.clear(); }
+        }
+        sections.clear();
+    }
+}
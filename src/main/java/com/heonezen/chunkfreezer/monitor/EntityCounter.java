@@ -0,0 +1,105 @@
+package com.heonezen.chunkfreezer.monitor;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import com.heonezen.chunkfreezer.config.Settings;
+import com.heonezen.chunkfreezer.util.ChunkKey;
+import com.heonezen.chunkfreezer.util.LongObjectMap;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-chunk weighted load of the entities that count towards the freeze limit (no players, no
+ * ignored types; each type weighted by {@link Settings#weight}), kept up to date from add/remove
+ * events. Loads are stored in weight units and read back as whole entity equivalents. Entities
+ * walking across a chunk border fire neither event, so {@link #count} rescans a chunk every
+ * {@link #RECONCILE_EVERY} reads, and callers {@link #reconcile} before acting on a threshold.
+ */
+public final class EntityCounter implements Listener {
+
+    private static final int RECONCILE_EVERY = 8;
+
+    private static final class Count {
+        volatile int load;
+        int reads;
+        Count(int load) { this.load = load; }
+    }
+
+    private final Settings settings;
+    private final Map<UUID, LongObjectMap<Count>> worlds = new ConcurrentHashMap<>();
+
+    public EntityCounter(Settings settings) { this.settings = settings; }
+
+    /** Weight of {@code e} in {@link Settings#WEIGHT_UNIT}s. */
+    public int weight(Entity e) { return e instanceof Player ? 0 : settings.weight(e.getType()); }
+
+    /** Cached count of a loaded chunk; rescans on first use and periodically. Region thread only. */
+    public int count(Chunk chunk) {
+        Count c = get(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ());
+        if (c == null || ++c.reads >= RECONCILE_EVERY) return reconcile(chunk);
+        return c.load / Settings.WEIGHT_UNIT;
+    }
+    public int reconcile(Chunk chunk) {
+        int load = 0;
+        for (Entity e : chunk.getEntities()) load += weight(e);
+        set(chunk.getWorld(), chunk.getX(), chunk.getZ(), load);
+        return load / Settings.WEIGHT_UNIT;
+    }
+    /** Records a load, in weight units, that the caller has just computed from a full scan. */
+    public void set(World world, int cx, int cz, int load) {
+        LongObjectMap<Count> map = worlds.computeIfAbsent(world.getUID(), _k -> new LongObjectMap<>());
+        long key = ChunkKey.pack(cx, cz);
+        Count c = map.get(key);
+        if (c == null) {
+            synchronized (map) {
+                if ((c = map.get(key)) == null) { map.put(key, new Count(load)); return; }
+            }
+        }
+        c.load = load;
+        c.reads = 0;
+    }
+    private Count get(UUID worldId, int cx, int cz) {
+        LongObjectMap<Count> map = worlds.get(worldId);
+        return map != null ? map.get(ChunkKey.pack(cx, cz)) : null;
+    }
+    private void adjust(Entity e, int sign) {
+        int w = weight(e);
+        if (w == 0) return;
+        Location loc = e.getLocation();
+        Count c = get(loc.getWorld().getUID(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+        if (c != null) c.load = Math.max(0, c.load + sign * w);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAdd(EntityAddToWorldEvent e) { adjust(e.getEntity(), 1); }
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRemove(EntityRemoveFromWorldEvent e) { adjust(e.getEntity(), -1); }
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent e) {
+        int load = 0;
+        List<Entity> entities = e.getEntities();
+        for (Entity ent : entities) load += weight(ent);
+        Chunk c = e.getChunk();
+        set(e.getWorld(), c.getX(), c.getZ(), load);
+    }
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        LongObjectMap<Count> map = worlds.get(e.getWorld().getUID());
+        if (map == null) return;
+        synchronized (map) { map.remove(ChunkKey.pack(e.getChunk().getX(), e.getChunk().getZ())); }
+    }
+    public void shutdown() { worlds.clear(); }
+}
@@ -0,0 +1,107 @@
+package com.heonezen.chunkfreezer.monitor;
+
+import com.heonezen.chunkfreezer.config.Settings;
+import com.heonezen.chunkfreezer.util.ChunkKey;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects freeze broadcasts and sends them once per flush interval. A quiet interval still gets
+ * one line per chunk; once the chunks outnumber the message budget they collapse into one line
+ * per world with its heaviest chunks. Chunks are ranked by how far past its own freeze threshold
+ * each went, so entity, redstone and cluster freezes compare fairly. The last interval's
+ * per-chunk lines stay available for {@code /chunk recent}.
+ */
+public final class FreezeDigest {
+
+    public record Entry(String world, int cx, int cz, String detail, double weight) {
+        String line(String prefix) {
+            return prefix + "§8Chunk overloaded §e" + world + " §8xyz(§f" + ((cx << 4) + 8) + "§8, §f~§8, §f" + ((cz << 4) + 8) + "§8)" + " §c(" + detail + ")";
+        }
+    }
+
+    private final Plugin plugin;
+    private final Settings settings;
+    private final Map<UUID, LinkedHashMap<Long, Entry>> pending = new LinkedHashMap<>();
+    private volatile List<Entry> recent = Collections.emptyList();
+    private ScheduledTask task;
+
+    public FreezeDigest(Plugin plugin, Settings settings) {
+        this.plugin = plugin;
+        this.settings = settings;
+    }
+    public void start() {
+        task = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, _t -> flush(), settings.digestFlushTicks, settings.digestFlushTicks);
+    }
+    /**
+     * Records a freeze for the next flush; a chunk reported twice keeps its latest detail.
+     * {@code value} is the measure that crossed {@code threshold}, in the reason's own unit.
+     */
+    public void report(World world, int cx, int cz, String detail, int value, int threshold) {
+        if (!settings.broadcast) return;
+        Entry e = new Entry(world.getName(), cx, cz, detail, (double) value / Math.max(1, threshold));
+        synchronized (pending) {
+            pending.computeIfAbsent(world.getUID(), _k -> new LinkedHashMap<>()).put(ChunkKey.pack(cx, cz), e);
+        }
+    }
+    /** Per-chunk entries of the last flushed interval, heaviest first. */
+    public List<Entry> recent() { return recent; }
+
+    private void flush() {
+        List<List<Entry>> worlds;
+        synchronized (pending) {
+            if (pending.isEmpty()) return;
+            worlds = new ArrayList<>(pending.size());
+            for (LinkedHashMap<Long, Entry> m : pending.values()) worlds.add(new ArrayList<>(m.values()));
+            pending.clear();
+        }
+        List<Entry> all = new ArrayList<>();
+        for (List<Entry> w : worlds) {
+            w.sort((a, b) -> Double.compare(b.weight(), a.weight()));
+            all.addAll(w);
+        }
+        all.sort((a, b) -> Double.compare(b.weight(), a.weight()));
+        recent = Collections.unmodifiableList(all);
+        int budget = settings.digestMaxMessages;
+        if (all.size() <= budget) {
+            for (Entry e : all) Bukkit.broadcastMessage(e.line(settings.prefix));
+            return;
+        }
+        worlds.sort((a, b) -> Integer.compare(b.size(), a.size()));
+        for (int i = 0; i < worlds.size() && i < budget; i++) {
+            if (i == budget - 1 && worlds.size() > budget) {
+                int rest = 0;
+                for (int j = i; j < worlds.size(); j++) rest += worlds.get(j).size();
+                Bukkit.broadcastMessage(settings.prefix + "§e" + rest + " §8chunks frozen in §e" + (worlds.size() - i) + " §8more worlds §7(/chunk recent)");
+                return;
+            }
+            Bukkit.broadcastMessage(summary(worlds.get(i)));
+        }
+    }
+    private String summary(List<Entry> world) {
+        StringBuilder sb = new StringBuilder(settings.prefix).append("§e").append(world.size())
+                .append(world.size() == 1 ? " §8chunk" : " §8chunks").append(" frozen in §e").append(world.get(0).world());
+        int top = Math.min(settings.digestTopChunks, world.size());
+        for (int i = 0; i < top; i++) {
+            Entry e = world.get(i);
+            sb.append(i == 0 ? "§8, top " + top + ": " : "§8, ")
+              .append("§f").append((e.cx() << 4) + 8).append(" ").append((e.cz() << 4) + 8).append(" §c(").append(e.detail()).append(")");
+        }
+        if (world.size() > top) sb.append(" §7(/chunk recent)");
+        return sb.toString();
+    }
+    public void shutdown() {
+        if (task != null) { try { task.cancel(); } catch (Throwable ignored) {} }
+        task = null;
+        synchronized (pending) { pending.clear(); }
+    }
+}
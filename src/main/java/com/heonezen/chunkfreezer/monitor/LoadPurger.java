@@ -0,0 +1,142 @@
+package com.heonezen.chunkfreezer.monitor;
+
+import com.heonezen.chunkfreezer.config.Settings;
+import com.heonezen.chunkfreezer.util.ChunkKey;
+import com.heonezen.chunkfreezer.util.LongObjectMap;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Destroy-threshold purge for freshly loaded chunks. Chunks whose saved entity list is already
+ * within the threshold are dropped at the door; the rest are queued per 16x16-chunk section and
+ * drained on the owning region thread, sharing a per-tick time budget across every queue that
+ * thread drains.
+ */
+final class LoadPurger {
+
+    private static final int  SECTION_SHIFT = 4;
+    private static final long TICK_NANOS = 50_000_000L;
+    private static final long BUDGET_NANOS = 1_000_000L;
+
+    private static final class Budget { long windowStart; long spent; }
+    private static final ThreadLocal<Budget> BUDGET = ThreadLocal.withInitial(Budget::new);
+
+    private final class Pending {
+        final World world;
+        final long sid;
+        long[] keys = new long[8];
+        int head, tail;
+        ScheduledTask task;
+
+        Pending(World world, long sid) { this.world = world; this.sid = sid; }
+        boolean isEmpty() { return head == tail; }
+        void push(long key) {
+            if (tail == keys.length) {
+                if (head > 0) { System.arraycopy(keys, head, keys, 0, tail - head); tail -= head; head = 0; }
+                else keys = Arrays.copyOf(keys, keys.length * 2);
+            }
+            keys[tail++] = key;
+        }
+        long poll() { return keys[head++]; }
+        void schedule(long delay) {
+            long first = keys[head];
+            task = Bukkit.getRegionScheduler().runDelayed(plugin, world, ChunkKey.x(first), ChunkKey.z(first), _t -> drain(this), delay);
+        }
+    }
+
+    private final Plugin plugin;
+    private final Settings settings;
+    private final Map<UUID, LongObjectMap<Pending>> queues = new ConcurrentHashMap<>();
+    private volatile boolean stopped;
+
+    LoadPurger(Plugin plugin, Settings settings) {
+        this.plugin = plugin;
+        this.settings = settings;
+    }
+
+    /** Queues {@code (cx, cz)} if its {@code loaded} entities could exceed the destroy threshold. */
+    void offer(World world, int cx, int cz, int loaded) {
+        if (stopped || loaded <= settings.destroyThreshold) return;
+        LongObjectMap<Pending> map = queues.computeIfAbsent(world.getUID(), _k -> new LongObjectMap<>());
+        long sid = ChunkKey.pack(cx >> SECTION_SHIFT, cz >> SECTION_SHIFT);
+        synchronized (map) {
+            Pending p = map.get(sid);
+            if (p == null) map.put(sid, p = new Pending(world, sid));
+            synchronized (p) {
+                p.push(ChunkKey.pack(cx, cz));
+                if (p.task == null) p.schedule(1L);
+            }
+        }
+    }
+    private void drain(Pending p) {
+        if (stopped) return;
+        Budget b = BUDGET.get();
+        long now = System.nanoTime();
+        if (now - b.windowStart >= TICK_NANOS) { b.windowStart = now; b.spent = 0L; }
+        while (b.spent < BUDGET_NANOS) {
+            boolean empty;
+            long key;
+            synchronized (p) {
+                empty = p.isEmpty();
+                key = empty ? 0L : p.poll();
+            }
+            if (empty) { retire(p); return; }
+            long t0 = System.nanoTime();
+            purge(p.world, ChunkKey.x(key), ChunkKey.z(key));
+            b.spent += System.nanoTime() - t0;
+        }
+        boolean more;
+        synchronized (p) {
+            more = !p.isEmpty();
+            if (more) p.schedule(1L);
+        }
+        if (!more) retire(p);
+    }
+    /** Drops an emptied queue, or re-arms it if a chunk arrived meanwhile. Lock order: map, then queue. */
+    private void retire(Pending p) {
+        LongObjectMap<Pending> map = queues.get(p.world.getUID());
+        if (map == null) return;
+        synchronized (map) {
+            synchronized (p) {
+                if (!p.isEmpty()) { p.schedule(1L); return; }
+                p.task = null;
+                if (map.get(p.sid) == p) map.remove(p.sid);
+            }
+        }
+    }
+    /** Counts and removes in one walk over the chunk's entities. */
+    private void purge(World world, int cx, int cz) {
+        if (!world.isChunkLoaded(cx, cz)) return;
+        Entity[] entities = world.getChunkAt(cx, cz).getEntities();
+        int n = 0;
+        for (Entity e : entities) {
+            if (!(e instanceof Player) && !settings.isIgnored(e.getType())) entities[n++] = e;
+        }
+        if (n <= settings.destroyThreshold) return;
+        for (int i = 0; i < n; i++) entities[i].remove();
+    }
+    void shutdown() {
+        stopped = true;
+        for (LongObjectMap<Pending> map : queues.values()) {
+            synchronized (map) {
+                map.forEach((sid, p) -> {
+                    synchronized (p) {
+                        if (p.task != null) { try { p.task.cancel(); } catch (Throwable ignored) {} }
+                        p.task = null;
+                    }
+                });
+                map.clear();
+            }
+        }
+        queues.clear();
+    }
+}
@@ -0,0 +1,21 @@
+package com.heonezen.chunkfreezer.monitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+/**
+ * Milliseconds per tick of the region owning a chunk, or {@code NaN} when unknown. Folia only
+ * exposes region TPS, so {@link #folia()} derives MSPT from the 5-second average; it reads 50 on
+ * a healthy region and only climbs once the region falls behind.
+ */
+public interface RegionLoad {
+
+    double mspt(World world, int cx, int cz);
+
+    static RegionLoad folia() {
+        return (world, cx, cz) -> {
+            double[] tps = Bukkit.getServer().getRegionTPS(world, cx, cz);
+            return tps == null || tps.length == 0 || tps[0] <= 0 ? Double.NaN : 1000.0 / Math.min(20.0, tps[0]);
+        };
+    }
+}
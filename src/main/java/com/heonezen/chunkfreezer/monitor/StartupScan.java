@@ -0,0 +1,129 @@
+package com.heonezen.chunkfreezer.monitor;
+
+import com.heonezen.chunkfreezer.freeze.FrozenSnapshot;
+import com.heonezen.chunkfreezer.util.ChunkKey;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Re-checks the frozen chunks left over from a previous run without a burst of tasks. Chunks are
+ * grouped by 16x16-chunk section (the unit Folia hands to regions); the global scheduler hands
+ * out {@link #SECTIONS_PER_TICK} sections a tick, and each section works through its chunks on
+ * its own region thread, {@link #CHUNKS_PER_TICK} a tick, so regions scan in parallel. A section
+ * task can be dropped when its region goes away, so the scan gives up once it has made no
+ * progress for {@link #STALL_MS}.
+ */
+final class StartupScan {
+
+    interface ChunkTask { void run(World world, int cx, int cz); }
+
+    private static final int  SECTION_SHIFT = 4;
+    private static final int  SECTIONS_PER_TICK = 16;
+    private static final int  CHUNKS_PER_TICK = 32;
+    private static final long REPORT_EVERY_MS = 5000L;
+    private static final long STALL_MS = 60_000L;
+
+    private static final class Batch {
+        final World world;
+        final long[] keys;
+        int next;
+        Batch(World world, long[] keys) { this.world = world; this.keys = keys; }
+    }
+
+    private final Plugin plugin;
+    private final Supplier<List<FrozenSnapshot>> snapshots;
+    private final ChunkTask task;
+    private final ArrayDeque<Batch> pending = new ArrayDeque<>();
+    private final AtomicInteger done = new AtomicInteger();
+    private int total = -1;
+    private long startedAt, reportedAt, progressAt;
+    private int progress;
+    private ScheduledTask dispatcher;
+    private volatile boolean cancelled;
+
+    private StartupScan(Plugin plugin, Supplier<List<FrozenSnapshot>> snapshots, ChunkTask task) {
+        this.plugin = plugin;
+        this.snapshots = snapshots;
+        this.task = task;
+    }
+    private void load() {
+        int n = 0;
+        for (FrozenSnapshot snap : snapshots.get()) {
+            World world = Bukkit.getWorld(snap.worldId());
+            if (world == null || snap.isEmpty()) continue;
+            Map<Long, int[]> sizes = new HashMap<>();
+            for (int i = 0; i < snap.size(); i++) sizes.computeIfAbsent(sectionOf(snap.cx(i), snap.cz(i)), _k -> new int[1])[0]++;
+            Map<Long, Batch> batches = new HashMap<>(sizes.size() * 2);
+            for (int i = 0; i < snap.size(); i++) {
+                long sid = sectionOf(snap.cx(i), snap.cz(i));
+                Batch b = batches.computeIfAbsent(sid, k -> new Batch(world, new long[sizes.get(k)[0]]));
+                b.keys[b.next++] = ChunkKey.pack(snap.cx(i), snap.cz(i));
+            }
+            for (Batch b : batches.values()) { b.next = 0; pending.add(b); }
+            n += snap.size();
+        }
+        total = n;
+        startedAt = reportedAt = progressAt = System.currentTimeMillis();
+    }
+    private static long sectionOf(int cx, int cz) { return ChunkKey.pack(cx >> SECTION_SHIFT, cz >> SECTION_SHIFT); }
+
+    /** Scans the chunks of {@code snapshots}, read once {@code delayTicks} have passed. */
+    static StartupScan start(Plugin plugin, Supplier<List<FrozenSnapshot>> snapshots, long delayTicks, ChunkTask task) {
+        StartupScan scan = new StartupScan(plugin, snapshots, task);
+        scan.dispatcher = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, _t -> scan.dispatch(), Math.max(1L, delayTicks), 1L);
+        return scan;
+    }
+    void cancel() {
+        cancelled = true;
+        if (dispatcher != null) { try { dispatcher.cancel(); } catch (Throwable ignored) {} }
+    }
+    private void dispatch() {
+        if (cancelled) { cancel(); return; }
+        if (total < 0) {
+            load();
+            if (total == 0) { cancel(); return; }
+        }
+        for (int i = 0; i < SECTIONS_PER_TICK && !pending.isEmpty(); i++) {
+            Batch b = pending.poll();
+            long first = b.keys[0];
+            Bukkit.getRegionScheduler().execute(plugin, b.world, ChunkKey.x(first), ChunkKey.z(first), () -> run(b));
+        }
+        int d = done.get();
+        long now = System.currentTimeMillis();
+        if (d != progress) { progress = d; progressAt = now; }
+        if (d >= total) {
+            cancel();
+            plugin.getLogger().info("Frozen chunk scan finished: " + total + " chunks in " + (now - startedAt) + " ms");
+        } else if (now - progressAt >= STALL_MS) {
+            cancel();
+            plugin.getLogger().warning("Frozen chunk scan stopped at " + d + "/" + total + " chunks: no progress for " + STALL_MS / 1000L + " s");
+        } else if (now - reportedAt >= REPORT_EVERY_MS) {
+            reportedAt = now;
+            plugin.getLogger().info("Frozen chunk scan: " + d + "/" + total + " chunks (" + (d * 100L / total) + "%)");
+        }
+    }
+    private void run(Batch b) {
+        if (cancelled) return;
+        int end = Math.min(b.keys.length, b.next + CHUNKS_PER_TICK);
+        for (; b.next < end; b.next++) {
+            long key = b.keys[b.next];
+            try { task.run(b.world, ChunkKey.x(key), ChunkKey.z(key)); }
+            catch (Throwable ex) { plugin.getLogger().log(Level.WARNING, "Frozen chunk scan failed at " + ChunkKey.x(key) + "," + ChunkKey.z(key), ex); }
+            done.incrementAndGet();
+        }
+        if (b.next < b.keys.length) {
+            long first = b.keys[0];
+            Bukkit.getRegionScheduler().runDelayed(plugin, b.world, ChunkKey.x(first), ChunkKey.z(first), _t -> run(b), 1L);
+        }
+    }
+}
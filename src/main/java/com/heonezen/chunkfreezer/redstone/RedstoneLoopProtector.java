@@ -1,13 +1,13 @@
 package com.heonezen.chunkfreezer.redstone;
 
+import com.heonezen.chunkfreezer.api.FreezeReason;
 import com.heonezen.chunkfreezer.config.Settings;
 import com.heonezen.chunkfreezer.freeze.FrozenChunkManager;
-import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import com.heonezen.chunkfreezer.monitor.EntityCounter;
+import com.heonezen.chunkfreezer.monitor.FreezeDigest;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.World;
-import org.bukkit.entity.Entity;
-import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -24,9 +24,13 @@ public final class RedstoneLoopProtector implements Listener {
     private final Plugin plugin;
     private final Settings settings;
     private final FrozenChunkManager manager;
+    private final EntityCounter counter;
+    private final FreezeDigest digest;
     private final Map<Key, RsState> states = new ConcurrentHashMap<>();
 
-    public RedstoneLoopProtector(Plugin plugin, Settings settings, FrozenChunkManager manager) { this.plugin = plugin; this.settings = settings; this.manager = manager; }
+    public RedstoneLoopProtector(Plugin plugin, Settings settings, FrozenChunkManager manager, EntityCounter counter, FreezeDigest digest) {
+        this.plugin = plugin; this.settings = settings; this.manager = manager; this.counter = counter; this.digest = digest;
+    }
     @EventHandler(priority = EventPriority.MONITOR)
     public void onChunkLoad(ChunkLoadEvent e) {
         long now = System.currentTimeMillis();
@@ -69,7 +73,6 @@ public final class RedstoneLoopProtector implements Listener {
     }
     private void trigger(World world, int cx, int cz, int distinct) {
         long now = System.currentTimeMillis();
-        manager.lockUnfreezeUntil(world, cx, cz, now + settings.redstoneFreezeSeconds * 1000L);
         if (settings.redstoneMuteAfterFreeze) {
             long muteUntil = settings.redstoneMuteMaxSeconds <= 0 ? Long.MAX_VALUE : now + settings.redstoneMuteMaxSeconds * 1000L;
             manager.muteRedstone(world, cx, cz, muteUntil);
@@ -77,28 +80,19 @@ public final class RedstoneLoopProtector implements Listener {
         Bukkit.getRegionScheduler().execute(plugin, world, cx, cz, () -> {
             if (!world.isChunkLoaded(cx, cz)) return;
             Chunk chunk = world.getChunkAt(cx, cz);
-            manager.freezeChunk(chunk, FrozenChunkManager.FreezeCause.REDSTONE);
-            if (settings.broadcast) {
-                String msg = settings.prefix + "§8Chunk overloaded §e" + world.getName() + " §8xyz(§f" + ((cx << 4) + 8) + "§8, §f~§8, §f" + ((cz << 4) + 8) + "§8)" + " §c(redstone=" + distinct + ")";
-                Bukkit.getGlobalRegionScheduler().execute(plugin, () -> Bukkit.broadcastMessage(msg));
-            }
-            Bukkit.getRegionScheduler().runDelayed(plugin, world, cx, cz,
-                    (ScheduledTask _st) -> attemptUnfreeze(world, cx, cz),
-                    Math.max(20L, settings.redstoneFreezeSeconds * 20L));
+            manager.freezeChunk(chunk, FreezeReason.REDSTONE);
+            manager.lockUnfreezeUntil(world, cx, cz, now + settings.redstoneFreezeSeconds * 1000L,
+                    () -> Bukkit.getRegionScheduler().execute(plugin, world, cx, cz, () -> attemptUnfreeze(world, cx, cz)));
+            digest.report(world, cx, cz, "redstone=" + distinct + (manager.isFrozenFor(world, cx, cz, FreezeReason.ENTITY) ? ", entity" : ""), distinct, settings.redstoneMinDistinctBlocks);
         });
     }
+    /** Lock expiry. An unloaded chunk still loses REDSTONE; its entities are re-checked when it loads. */
     private void attemptUnfreeze(World world, int cx, int cz) {
-        if (!world.isChunkLoaded(cx, cz)) return;
+        if (!world.isChunkLoaded(cx, cz)) { manager.unfreezeChunk(world, cx, cz, FreezeReason.REDSTONE); return; }
         Chunk chunk = world.getChunkAt(cx, cz);
-        if (countForLimit(chunk) < settings.freezeThreshold && manager.isFrozen(world, cx, cz))
-            manager.unfreezeChunk(chunk);
-    }
-    private int countForLimit(Chunk chunk) {
-        int c = 0;
-        for (Entity e : chunk.getEntities()) {
-            if (!(e instanceof Player) && !settings.isIgnored(e.getType())) c++;
-        }
-        return c;
+        if (counter.count(chunk) >= settings.freezeThreshold && counter.reconcile(chunk) >= settings.freezeThreshold)
+            manager.freezeChunk(chunk, FreezeReason.ENTITY);
+        manager.unfreezeChunk(chunk, FreezeReason.REDSTONE);
     }
     private long windowIndex(long nowMs) {
         return nowMs / Math.max(50L, settings.redstoneWindowTicks * 50L);
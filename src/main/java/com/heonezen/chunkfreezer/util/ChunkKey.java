@@ -0,0 +1,9 @@
+package com.heonezen.chunkfreezer.util;
+
+public final class ChunkKey {
+    private ChunkKey() {}
+
+    public static long pack(int x, int z) { return ((long) x << 32) | (z & 0xFFFFFFFFL); }
+    public static int x(long key) { return (int) (key >> 32); }
+    public static int z(long key) { return (int) key; }
+}
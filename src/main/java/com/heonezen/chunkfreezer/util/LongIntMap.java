@@ -0,0 +1,98 @@
+package com.heonezen.chunkfreezer.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from long keys to positive int counts; 0 means absent. Same concurrency
+ * contract as {@link LongObjectMap}: mutations serialised by the caller, lock-free lookups, and
+ * entries that drop to 0 keep their key until the next rehash.
+ */
+public final class LongIntMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int  MIN_CAPACITY = 16;
+
+    private static final class Table {
+        final long[] keys;
+        final int[]  values;
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+    }
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private volatile int size;
+    private int used;
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public int get(long key) {
+        Table t = table;
+        long[] keys = t.keys;
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) return t.values[i];
+            if (k == EMPTY) return 0;
+        }
+    }
+    /** Adds {@code delta} and returns the new count; counts never go below 0. */
+    public int addTo(long key, int delta) {
+        if (key == EMPTY) throw new IllegalArgumentException("reserved key");
+        Table t = table;
+        long[] keys = t.keys;
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        for (; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                int old = t.values[i], now = Math.max(0, old + delta);
+                t.values[i] = now;
+                if (old == 0 && now > 0) size++;
+                else if (old > 0 && now == 0) size--;
+                return now;
+            }
+            if (k == EMPTY) break;
+        }
+        if (delta <= 0) return 0;
+        if ((used + 1) * 2 > keys.length) {
+            rehash(size + 1);
+            return addTo(key, delta);
+        }
+        t.values[i] = delta;
+        keys[i] = key;
+        used++;
+        size++;
+        return delta;
+    }
+    public void clear() {
+        table = new Table(MIN_CAPACITY);
+        size = 0;
+        used = 0;
+    }
+    private void rehash(int live) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < live * 4) capacity <<= 1;
+        Table old = table, next = new Table(capacity);
+        int mask = capacity - 1, moved = 0;
+        for (int j = 0; j < old.keys.length; j++) {
+            int v = old.values[j];
+            if (v == 0) continue;
+            long key = old.keys[j];
+            int i = mix(key) & mask;
+            while (next.keys[i] != EMPTY) i = (i + 1) & mask;
+            next.keys[i] = key;
+            next.values[i] = v;
+            moved++;
+        }
+        used = moved;
+        table = next;
+    }
+}
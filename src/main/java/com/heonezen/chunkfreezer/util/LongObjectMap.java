@@ -0,0 +1,136 @@
+package com.heonezen.chunkfreezer.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Open-addressing long-keyed map. Mutations must be serialised by the caller; lookups may run
+ * concurrently and never allocate. A slot's key is written before its value, and values are
+ * published with release stores and read with acquire loads, so a reader that sees a value also
+ * sees its key and the value's fields. Removed entries keep their key with a null value until the
+ * next rehash, so an in-flight reader at worst sees a mapping as absent.
+ */
+public final class LongObjectMap<V> {
+
+    public interface Visitor<V> { void accept(long key, V value); }
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int  MIN_CAPACITY = 16;
+    private static final VarHandle KEYS   = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private static final class Table {
+        final long[]   keys;
+        final Object[] values;
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+    }
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private volatile int size;
+    private int used;
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        Table t = table;
+        long[] keys = t.keys;
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long k = (long) KEYS.getOpaque(keys, i);
+            if (k == key) return (V) VALUES.getAcquire(t.values, i);
+            if (k == EMPTY) return null;
+        }
+    }
+    public boolean containsKey(long key) { return get(key) != null; }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == EMPTY) throw new IllegalArgumentException("reserved key");
+        Objects.requireNonNull(value, "value");
+        Table t = table;
+        long[] keys = t.keys;
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        for (; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                V old = (V) t.values[i];
+                VALUES.setRelease(t.values, i, value);
+                if (old == null) size++;
+                return old;
+            }
+            if (k == EMPTY) break;
+        }
+        if ((used + 1) * 2 > keys.length) {
+            rehash(size + 1);
+            return put(key, value);
+        }
+        KEYS.setOpaque(keys, i, key);
+        VALUES.setRelease(t.values, i, value);
+        used++;
+        size++;
+        return null;
+    }
+    public V putIfAbsent(long key, V value) {
+        V cur = get(key);
+        return cur != null ? cur : put(key, value);
+    }
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        Table t = table;
+        long[] keys = t.keys;
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                V old = (V) t.values[i];
+                if (old != null) { VALUES.setRelease(t.values, i, null); size--; }
+                return old;
+            }
+            if (k == EMPTY) return null;
+        }
+    }
+    public void clear() {
+        table = new Table(MIN_CAPACITY);
+        size = 0;
+        used = 0;
+    }
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<? super V> visitor) {
+        Table t = table;
+        for (int i = 0; i < t.keys.length; i++) {
+            Object v = VALUES.getAcquire(t.values, i);
+            if (v != null) visitor.accept((long) KEYS.getOpaque(t.keys, i), (V) v);
+        }
+    }
+    private void rehash(int live) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < live * 4) capacity <<= 1;
+        Table old = table, next = new Table(capacity);
+        int mask = capacity - 1, moved = 0;
+        for (int j = 0; j < old.keys.length; j++) {
+            Object v = old.values[j];
+            if (v == null) continue;
+            long key = old.keys[j];
+            int i = mix(key) & mask;
+            while (next.keys[i] != EMPTY) i = (i + 1) & mask;
+            next.keys[i] = key;
+            next.values[i] = v;
+            moved++;
+        }
+        used = moved;
+        table = next;
+    }
+}
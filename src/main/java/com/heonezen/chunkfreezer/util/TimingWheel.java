@@ -0,0 +1,109 @@
+package com.heonezen.chunkfreezer.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel with one-tick resolution. Level 0 holds the next 256 ticks, each
+ * further level covers 64 slots of the level below; timers cascade down as the wheel turns, so
+ * scheduling, cancelling and expiring are all O(1) per timer. Thread-safe; tasks run on the
+ * thread calling {@link #advance()}, outside the wheel lock.
+ */
+public final class TimingWheel {
+
+    public interface Task { void run(Timeout timeout); }
+
+    public static final class Timeout {
+        private final Task task;
+        private long deadline;
+        private Timeout prev, next;
+        private Timeout[] bucket;
+        private int slot;
+
+        private Timeout(Task task, long deadline) { this.task = task; this.deadline = deadline; }
+        public long deadline() { return deadline; }
+    }
+
+    private static final int ROOT_BITS = 8;
+    private static final int LEVEL_BITS = 6;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (ROOT_BITS + LEVEL_BITS * (LEVELS - 1));
+
+    private final Timeout[][] wheels = new Timeout[LEVELS][];
+    private final List<Timeout> expired = new ArrayList<>();
+    private long now;
+    private int size;
+
+    public TimingWheel() {
+        wheels[0] = new Timeout[1 << ROOT_BITS];
+        for (int l = 1; l < LEVELS; l++) wheels[l] = new Timeout[1 << LEVEL_BITS];
+    }
+    private static int shift(int level) { return level == 0 ? 0 : ROOT_BITS + LEVEL_BITS * (level - 1); }
+
+    public synchronized long now() { return now; }
+    public synchronized int size() { return size; }
+
+    public synchronized Timeout schedule(long delayTicks, Task task) {
+        Timeout t = new Timeout(task, now + Math.max(1L, delayTicks));
+        insert(t);
+        size++;
+        return t;
+    }
+    public synchronized boolean cancel(Timeout t) {
+        if (t == null || t.bucket == null) return false;
+        unlink(t);
+        size--;
+        return true;
+    }
+    public void advance() {
+        List<Timeout> due = expired;
+        synchronized (this) {
+            now++;
+            for (int l = 1; l < LEVELS; l++) {
+                if ((now & ((1L << shift(l)) - 1)) != 0) break;
+                cascade(l, (int) ((now >>> shift(l)) & ((1 << LEVEL_BITS) - 1)));
+            }
+            Timeout[] root = wheels[0];
+            int idx = (int) (now & (root.length - 1));
+            for (Timeout t = root[idx]; t != null; ) {
+                Timeout next = t.next;
+                if (t.deadline <= now) { unlink(t); size--; due.add(t); }
+                t = next;
+            }
+        }
+        if (due.isEmpty()) return;
+        for (int i = 0; i < due.size(); i++) due.get(i).task.run(due.get(i));
+        due.clear();
+    }
+    public synchronized void clear() {
+        for (Timeout[] wheel : wheels) java.util.Arrays.fill(wheel, null);
+        size = 0;
+    }
+    private void cascade(int level, int slot) {
+        Timeout t = wheels[level][slot];
+        wheels[level][slot] = null;
+        while (t != null) {
+            Timeout next = t.next;
+            t.prev = t.next = null; t.bucket = null;
+            insert(t);
+            t = next;
+        }
+    }
+    private void insert(Timeout t) {
+        long delta = Math.min(t.deadline - now, MAX_SPAN - 1);
+        long at = now + delta;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << shift(level + 1))) level++;
+        Timeout[] bucket = wheels[level];
+        int slot = (int) ((at >>> shift(level)) & (bucket.length - 1));
+        t.bucket = bucket; t.slot = slot;
+        t.prev = null; t.next = bucket[slot];
+        if (t.next != null) t.next.prev = t;
+        bucket[slot] = t;
+    }
+    private static void unlink(Timeout t) {
+        if (t.prev != null) t.prev.next = t.next; else t.bucket[t.slot] = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = t.next = null; t.bucket = null;
+    }
+}
@@ -0,0 +1,122 @@
+package com.heonezen.chunkfreezer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectMapTest {
+
+    @Test
+    void putGetAndOverwrite() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertNull(map.put(1L, "a"));
+        assertNull(map.put(-1L, "b"));
+        assertEquals("a", map.put(1L, "c"));
+        assertEquals("c", map.get(1L));
+        assertEquals("b", map.get(-1L));
+        assertNull(map.get(2L));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void putIfAbsentKeepsCurrent() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertNull(map.putIfAbsent(7L, "a"));
+        assertEquals("a", map.putIfAbsent(7L, "b"));
+        assertEquals("a", map.get(7L));
+    }
+
+    @Test
+    void rejectsReservedKeyAndNullValue() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertThrows(IllegalArgumentException.class, () -> map.put(Long.MIN_VALUE, "a"));
+        assertThrows(NullPointerException.class, () -> map.put(1L, null));
+        assertNull(map.get(Long.MIN_VALUE));
+    }
+
+    @Test
+    void removeLeavesTombstoneThatKeepsProbeChains() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long k = 0; k < 6; k++) map.put(k, k);
+        for (long k = 0; k < 6; k += 2) assertEquals(k, map.remove(k));
+        assertNull(map.remove(0L));
+        assertEquals(3, map.size());
+        for (long k = 0; k < 6; k++) assertEquals(k % 2 == 0 ? null : k, map.get(k));
+        assertNull(map.put(2L, 20L));
+        assertEquals(20L, map.get(2L));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    void tombstonesAreDroppedOnRehash() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long k = 0; k < 10_000; k++) {
+            map.put(k, k);
+            map.remove(k);
+        }
+        assertTrue(map.isEmpty());
+        map.put(42L, 42L);
+        assertEquals(42L, map.get(42L));
+        int[] seen = {0};
+        map.forEach((k, v) -> seen[0]++);
+        assertEquals(1, seen[0]);
+    }
+
+    @Test
+    void rehashKeepsEveryEntry() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random rnd = new Random(1);
+        for (int i = 0; i < 50_000; i++) {
+            long k = ChunkKey.pack(rnd.nextInt(512) - 256, rnd.nextInt(512) - 256);
+            if (rnd.nextInt(3) == 0) assertEquals(expected.remove(k), map.remove(k));
+            else assertEquals(expected.put(k, (long) i), map.put(k, (long) i));
+        }
+        assertEquals(expected.size(), map.size());
+        expected.forEach((k, v) -> assertEquals(v, map.get(k)));
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach((k, v) -> assertNull(visited.put(k, v)));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        for (long k = 0; k < 100; k++) map.put(k, "v");
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(5L));
+        map.put(5L, "w");
+        assertEquals("w", map.get(5L));
+    }
+
+    @Test
+    void concurrentReadersNeverSeeAValueWithoutItsKey() throws InterruptedException {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get() && failure.get() == null) {
+                map.forEach((k, v) -> { if (k != v) failure.compareAndSet(null, "key " + k + " paired with " + v); });
+                for (long k = 0; k < 64; k++) {
+                    Long v = map.get(k);
+                    if (v != null && v != k) failure.compareAndSet(null, "get(" + k + ") returned " + v);
+                }
+            }
+        });
+        reader.start();
+        for (int round = 0; round < 200; round++) {
+            for (long k = 0; k < 2_000; k++) map.put(k, k);
+            for (long k = 0; k < 2_000; k++) map.remove(k);
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+    }
+}